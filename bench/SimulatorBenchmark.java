@@ -0,0 +1,372 @@
+/**
+ * The SimulatorBenchmark class measures the hot paths of the simulator: packet generation,
+ * least loaded router selection, Router enqueue/dequeue and whole simulations under low, medium
+ * and saturated load. Every benchmark runs warm-up iterations followed by measured iterations and
+ * reports its throughput and the bytes it allocates per operation, read from the thread allocation
+ * counter, so a change can be compared before and after on the same machine. The tickAllocation check
+ * fails the run, with exit status 1, when a warmed-up simulation unit allocates any memory.
+ *
+ * <p>Compile and run from the project root:
+ * <pre>
+ * javac -d out src/*.java bench/*.java
+ * java -cp out SimulatorBenchmark [filter=regex] [warmup=3] [iterations=5] [time=1000]
+ * </pre>
+ * filter selects benchmarks by name, time is the length of one iteration in milliseconds.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+public class SimulatorBenchmark {
+
+    /**
+     * The Workload interface is one benchmark with a fixed parameter.
+     */
+    interface Workload {
+        /**
+         * Performs a batch of operations.
+         *
+         * @return
+         * 		Number of operations performed.
+         * */
+        long run() throws Exception;
+    }
+
+    /**
+     * The Factory interface creates a fresh Workload, so every benchmark starts from the same state.
+     */
+    interface Factory {
+        Workload create() throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //results are folded into this field so the JIT cannot remove the measured work
+    static volatile long sink;
+    //set when a check fails, making the run exit with status 1
+    static boolean failed;
+
+    private final Pattern filter;
+    private final int warmup, iterations;
+    private final long iterationNanos;
+
+    /**
+     * Constructor creates a SimulatorBenchmark with the given options.
+     *
+     * @param options
+     * 		Options read from the command line.
+     * */
+    public SimulatorBenchmark(Properties options) {
+        filter = Pattern.compile(options.getProperty("filter", ".*"));
+        warmup = BatchSimulator.getInt(options, "warmup", 3);
+        iterations = Math.max(1, BatchSimulator.getInt(options, "iterations", 5));
+        iterationNanos = BatchSimulator.getInt(options, "time", 1000) * 1_000_000L;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     *
+     * @return
+     * 		Allocated bytes.
+     * */
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Runs one benchmark and prints its throughput and allocation.
+     *
+     * @param name
+     * 		Name of the benchmark.
+     *
+     * @param param
+     * 		Parameter of this run of the benchmark.
+     *
+     * @param unit
+     * 		Name of one operation, such as "packets" or "ticks".
+     *
+     * @param factory
+     * 		Creates the workload being measured.
+     * */
+    void measure(String name, String param, String unit, Factory factory) throws Exception {
+        if(!filter.matcher(name).find())
+            return;
+
+        Workload workload = factory.create();
+        for(int i = 0; i < warmup; i++)
+            iteration(workload);
+
+        double[] rates = new double[iterations];
+        long totalOps = 0, totalBytes = 0;
+        for(int i = 0; i < iterations; i++) {
+            long before = allocatedBytes();
+            long[] result = iteration(workload);
+            totalBytes += allocatedBytes() - before;
+            totalOps += result[0];
+            rates[i] = result[0] * 1e9 / result[1];
+        }
+
+        double mean = 0, variance = 0;
+        for(double rate : rates)
+            mean += rate / iterations;
+        for(double rate : rates)
+            variance += (rate - mean) * (rate - mean) / Math.max(1, iterations - 1);
+        System.out.printf(Locale.ROOT, "%-28s %-22s %16.1f +- %-12.1f %-10s %10.2f%n", name, param, mean,
+                Math.sqrt(variance), unit + "/s", (double) totalBytes / Math.max(1, totalOps));
+    }
+
+    /**
+     * Runs the workload for one iteration.
+     *
+     * @param workload
+     * 		Workload being run.
+     *
+     * @return
+     * 		Number of operations and elapsed nanoseconds.
+     * */
+    private long[] iteration(Workload workload) throws Exception {
+        long ops = 0, start = System.nanoTime(), elapsed;
+        do {
+            ops += workload.run();
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < iterationNanos);
+        return new long[] {ops, elapsed};
+    }
+
+    /**
+     * Packets drawn from the arrival model and stored in a PacketStore, as the dispatcher does.
+     * */
+    void packetGeneration() throws Exception {
+        for(double prob : new double[] {0.1, 0.9}) {
+            measure("packetGeneration", "arrivalProb=" + prob, "packets", () -> {
+                RandomSource random = new RandomSource(1);
+                ArrivalSource arrivals = new BernoulliArrivals(3, prob, 100, 500, random);
+                PacketStore store = new PacketStore(64);
+                int[] id = {0};
+                return () -> {
+                    for(int i = 0; i < 1024; i++) {
+                        int time = arrivals.nextTime(), size = arrivals.take();
+                        int slot = store.allocate(++id[0], size, time, size / 100);
+                        store.release(slot);
+                    }
+                    sink += id[0];
+                    return 1024;
+                };
+            });
+        }
+        //every traffic model and size distribution at 1.5 packets per unit, the load of arrivalProb=0.5
+        for(ArrivalType type : ArrivalType.values()) {
+            for(SizeType sizes : SizeType.values()) {
+                SimulationConfig config = SimulationConfig.builder().arrivalProb(0.5).minPacketSize(100)
+                        .maxPacketSize(1500).arrivals(type).arrivalRate((type == ArrivalType.ONOFF) ? 3 : 1.5)
+                        .mmppRates(0.5, 3.5).mmppDwell(20, 20).sizes(sizes).build();
+                measure("packetGeneration.model", type.name().toLowerCase() + "," + sizes.name().toLowerCase(),
+                        "packets", () -> {
+                    ArrivalSource arrivals = type.create(config, new RandomSource(1));
+                    PacketStore store = new PacketStore(64);
+                    int[] id = {0};
+                    return () -> {
+                        for(int i = 0; i < 1024; i++) {
+                            int time = arrivals.nextTime(), size = arrivals.take();
+                            int slot = store.allocate(++id[0], size, time, size / 100);
+                            store.release(slot);
+                        }
+                        sink += id[0];
+                        return 1024;
+                    };
+                });
+            }
+        }
+    }
+
+    /**
+     * Picks the least loaded router and moves one packet, keeping the routers half full.
+     * The linear scan of Router.sendPacketTo(List) is measured next to the index for comparison.
+     * */
+    void leastLoadedSelection() throws Exception {
+        for(int numRouters : new int[] {10, 100, 1000, 10000}) {
+            for(boolean indexed : new boolean[] {true, false}) {
+                if(!indexed && numRouters > 1000)
+                    continue;
+                String name = indexed ? "leastLoaded.index" : "leastLoaded.scan";
+                measure(name, "routers=" + numRouters, "packets", () -> {
+                    PacketStore store = new PacketStore(numRouters * 8);
+                    List<Router> routers = new ArrayList<>();
+                    RandomSource random = new RandomSource(1);
+                    for(int i = 0; i < numRouters; i++) {
+                        Router router = new Router(8, store);
+                        for(int j = random.nextInt(0, 7); j > 0; j--)
+                            router.enqueueSlot(0);
+                        routers.add(router);
+                    }
+                    RouterLoadIndex loadIndex = indexed ? new RouterLoadIndex(routers) : null;
+                    return () -> {
+                        for(int i = 0; i < 256; i++) {
+                            int target = indexed ? Router.sendPacketTo(loadIndex) : Router.sendPacketTo(routers);
+                            routers.get(target).enqueueSlot(0);
+                            Router other = routers.get(random.nextInt(0, numRouters - 1));
+                            if(!other.isEmpty())
+                                other.dequeueSlot();
+                            sink += target;
+                        }
+                        return 256;
+                    };
+                });
+            }
+        }
+    }
+
+    /**
+     * Enqueues and dequeues packets on a single Router.
+     * */
+    void enqueueDequeue() throws Exception {
+        for(int capacity : new int[] {16, 1024}) {
+            measure("enqueueDequeue", "capacity=" + capacity, "packets", () -> {
+                Router router = new Router(capacity, new PacketStore(1));
+                return () -> {
+                    long sum = 0;
+                    for(int i = 0; i < 1024; i++) {
+                        router.enqueueSlot(i);
+                        if(router.isFull())
+                            while(!router.isEmpty())
+                                sum += router.dequeueSlot();
+                    }
+                    sink += sum;
+                    return 1024;
+                };
+            });
+        }
+    }
+
+    /**
+     * Runs whole simulations with both engines under low, medium and saturated load.
+     * One operation is one simulation unit; construction of the Simulator is included.
+     * */
+    void endToEnd() throws Exception {
+        String[] loads = {"low", "medium", "saturated"};
+        double[] probs = {0.05, 0.5, 1.0};
+        int[] maxPackets = {3, 30, 300};
+        for(int numRouters : new int[] {10, 1000}) {
+            for(int i = 0; i < loads.length; i++) {
+                for(SimulationEngine engine : SimulationEngine.values()) {
+                    SimulationConfig config = SimulationConfig.builder().numIntRouters(numRouters)
+                            .arrivalProb(probs[i]).maxPackets(maxPackets[i]).maxBufferSize(10)
+                            .minPacketSize(100).maxPacketSize(500).bandwidth(Math.max(1, numRouters / 10))
+                            .duration(10_000).seed(1).engine(engine).build();
+                    measure("endToEnd." + engine.name().toLowerCase(), loads[i] + ",routers=" + numRouters,
+                            "ticks", () -> () -> {
+                                Simulator simulator = new Simulator(config);
+                                simulator.setEventSink(EventSink.NONE);
+                                sink += (long) simulator.simulate();
+                                return config.getDuration();
+                            });
+                }
+            }
+        }
+    }
+
+    /**
+     * The AllocationSink class is an EventSink that reports nothing and counts the bytes the simulation
+     * thread allocates between the starts of consecutive simulation units, once the warm-up units are over.
+     */
+    static final class AllocationSink implements EventSink {
+        private final int warmupTicks;
+        private long last, bytes, ticks, allocatingTicks;
+
+        AllocationSink(int warmupTicks) {
+            this.warmupTicks = warmupTicks;
+        }
+
+        @Override
+        public boolean isEnabled(EventLevel level) {
+            return false;
+        }
+
+        @Override
+        public void tickStarted(int time) {
+            long now = allocatedBytes();
+            if(time > warmupTicks) {
+                ticks++;
+                bytes += now - last;
+                if(now != last)
+                    allocatingTicks++;
+            }
+            //read again so the measurement itself is never counted
+            last = allocatedBytes();
+        }
+    }
+
+    /**
+     * Checks that the simulation unit loop allocates nothing once warmed up, for every engine and a
+     * saturated load that drops packets, with each queue discipline and load balancer and the warm-up
+     * detector on. The score is the number of units that allocated, and one operation is one simulation
+     * unit; the run fails when any unit allocates.
+     * */
+    void tickAllocation() throws Exception {
+        if(!filter.matcher("tickAllocation").find())
+            return;
+        long before = allocatedBytes();
+        long probe = allocatedBytes() - before;
+        if(probe != 0)
+            System.out.println("tickAllocation: reading the allocation counter allocates " + probe + " bytes");
+
+        for(SimulationEngine engine : SimulationEngine.values()) {
+            for(QueueType queue : QueueType.values()) {
+                if(engine == SimulationEngine.EVENT && !queue.isFifo())
+                    continue;
+                for(BalancerType balancer : BalancerType.values()) {
+                    SimulationConfig config = SimulationConfig.builder().numIntRouters(64).arrivalProb(0.9)
+                            .maxPackets(40).maxBufferSize(8).minPacketSize(100).maxPacketSize(1500).bandwidth(8)
+                            .duration(100_000).seed(1).engine(engine).shards(2).queue(queue).balancer(balancer).warmup(true)
+                            .build();
+                    Simulator simulator = new Simulator(config);
+                    AllocationSink allocations = new AllocationSink(50_000);
+                    simulator.setEventSink(allocations);
+                    sink += (long) simulator.simulate();
+
+                    String param = engine.name().toLowerCase() + "," + queue.name().toLowerCase() + "," +
+                            balancer.name().toLowerCase();
+                    double perTick = (double) allocations.bytes / Math.max(1, allocations.ticks);
+                    System.out.printf(Locale.ROOT, "%-28s %-22s %16d +- %-12d %-10s %10.2f%n", "tickAllocation",
+                            param, allocations.allocatingTicks, 0, "ticks", perTick);
+                    if(allocations.bytes != 0) {
+                        failed = true;
+                        System.out.println("FAIL: " + allocations.allocatingTicks + " of " + allocations.ticks +
+                                " steady-state units allocated " + allocations.bytes + " bytes");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs every benchmark matching the filter.
+     * */
+    public void runAll() throws Exception {
+        System.out.printf(Locale.ROOT, "%-28s %-22s %32s %-10s %10s%n", "Benchmark", "Param", "Score +- Error",
+                "Units", "B/op");
+        packetGeneration();
+        leastLoadedSelection();
+        enqueueDequeue();
+        endToEnd();
+        tickAllocation();
+    }
+
+    /**
+     * The main method runs the benchmarks selected by the command line arguments.
+     *
+     * @param args
+     * 		Command line arguments in the form key=value.
+     * */
+    public static void main(String[] args) throws Exception {
+        new SimulatorBenchmark(BatchSimulator.readConfig(args)).runAll();
+        if(failed)
+            System.exit(1);
+    }
+}
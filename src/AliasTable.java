@@ -0,0 +1,89 @@
+/**
+ * The AliasTable class draws an index of a discrete distribution in constant time, whatever the number
+ * of outcomes, with Vose's alias method: each column of the table holds the probability of keeping its
+ * own index and the index it gives the rest of its probability to.
+ *
+ * @author Zhen Wei Liao
+ **/
+public class AliasTable {
+
+    //probability of keeping the column index, scaled to 2^32, and the index drawn otherwise
+    private final long[] keep;
+    private final int[] alias;
+
+    /**
+     * Constructor creates an AliasTable drawing each index with a probability proportional to its weight.
+     *
+     * @param weights
+     * 		Non-negative weights of the outcomes, at least one of them positive.
+     *
+     * @throws IllegalArgumentException
+     * 		when there are no weights, a weight is negative or not a number, or every weight is 0.
+     * */
+    public AliasTable(double[] weights) throws IllegalArgumentException {
+        int n = weights.length;
+        double total = 0;
+        for(double weight : weights) {
+            if(!(weight >= 0) || Double.isInfinite(weight))
+                throw new IllegalArgumentException("Invalid weight: " + weight + ". Please enter a non-negative number.");
+            total += weight;
+        }
+        if(n == 0 || total <= 0)
+            throw new IllegalArgumentException("Invalid weights. At least one weight must be positive.");
+
+        keep = new long[n];
+        alias = new int[n];
+        //columns below and above the average, filled from both ends of one array
+        int[] work = new int[n];
+        int small = 0, large = n;
+        double[] scaled = new double[n];
+        for(int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if(scaled[i] < 1)
+                work[small++] = i;
+            else
+                work[--large] = i;
+        }
+        while(small > 0 && large < n) {
+            int less = work[--small], more = work[large++];
+            keep[less] = (long) (scaled[less] * 0x1.0p32);
+            alias[less] = more;
+            scaled[more] -= 1 - scaled[less];
+            if(scaled[more] < 1)
+                work[small++] = more;
+            else
+                work[--large] = more;
+        }
+        //what is left is 1 up to rounding errors
+        while(large < n)
+            keep[work[large++]] = 1L << 32;
+        while(small > 0)
+            keep[work[--small]] = 1L << 32;
+    }
+
+    /**
+     * Returns the number of outcomes.
+     *
+     * @return
+     * 		Number of outcomes.
+     * */
+    public int size() {
+        return keep.length;
+    }
+
+    /**
+     * Draws an index from one random long: its high half picks the column, its low half decides
+     * between the column and its alias.
+     *
+     * @param random
+     * 		RandomSource drawing the index.
+     *
+     * @return
+     * 		Index in the range [0, size() - 1].
+     * */
+    public int sample(RandomSource random) {
+        long bits = random.nextLong();
+        int column = (int) (((bits >>> 32) * keep.length) >>> 32);
+        return ((bits & 0xffffffffL) < keep[column]) ? column : alias[column];
+    }
+}
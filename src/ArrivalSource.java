@@ -0,0 +1,26 @@
+/**
+ * The ArrivalSource interface produces the packets arriving at the dispatcher, in order of arrival.
+ * Engines ask for the time of the next arrival, so they can skip the simulation units in which
+ * nothing arrives.
+ *
+ * @author Zhen Wei Liao
+ **/
+public interface ArrivalSource {
+
+    /**
+     * Returns the simulation unit in which the next packet arrives. Calling this method again
+     * without taking the packet returns the same value.
+     *
+     * @return
+     * 		Simulation unit of the next arrival, or Integer.MAX_VALUE if no more packets arrive.
+     * */
+    int nextTime();
+
+    /**
+     * Takes the next arriving packet.
+     *
+     * @return
+     * 		Size of the packet.
+     * */
+    int take();
+}
@@ -0,0 +1,66 @@
+/**
+ * The ArrivalType enum lists the traffic models that generate the packets arriving at the dispatcher,
+ * selected per run.
+ *
+ * @author Zhen Wei Liao
+ **/
+public enum ArrivalType {
+    //each of maxPackets packets arrives with arrivalProb in every simulation unit
+    BERNOULLI,
+    //a Poisson number of packets of mean arrivalRate in every simulation unit
+    POISSON,
+    //Poisson bursts of mean arrivalRate lasting onTime units on average, separated by offTime silent units
+    ONOFF,
+    //Poisson arrivals whose rate switches among mmppRates, staying mmppDwell units in each on average
+    MMPP;
+
+    /**
+     * Returns the ArrivalType with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the traffic model, "bernoulli", "poisson", "onoff" or "mmpp".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any traffic model.
+     *
+     * @return
+     * 		ArrivalType with the given name.
+     * */
+    public static ArrivalType parse(String name) throws IllegalArgumentException {
+        for(ArrivalType type : values())
+            if(type.name().equalsIgnoreCase(name.trim()))
+                return type;
+
+        throw new IllegalArgumentException("Invalid arrivals: " + name +
+                ". Please enter bernoulli, poisson, onoff or mmpp.");
+    }
+
+    /**
+     * Creates the ArrivalSource of this traffic model, whose packet sizes follow the sizes of the settings.
+     *
+     * @param config
+     * 		Settings of the simulation.
+     *
+     * @param random
+     * 		RandomSource deciding the arrivals and the packet sizes.
+     *
+     * @return
+     * 		New ArrivalSource.
+     * */
+    public ArrivalSource create(SimulationConfig config, RandomSource random) {
+        PacketSizes sizes = config.getSizes().create(config);
+        switch(this) {
+            case POISSON:
+                return new ModulatedArrivals(config.getMaxPackets(), new double[] {config.getArrivalRate()},
+                        new double[] {1}, sizes, random);
+            case ONOFF:
+                return new ModulatedArrivals(config.getMaxPackets(), new double[] {config.getArrivalRate(), 0},
+                        new double[] {config.getOnTime(), config.getOffTime()}, sizes, random);
+            case MMPP:
+                return new ModulatedArrivals(config.getMaxPackets(), config.getMmppRates(), config.getMmppDwell(),
+                        sizes, random);
+            default:
+                return new BernoulliArrivals(config.getMaxPackets(), config.getArrivalProb(), sizes, random);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The BalancerType enum lists the LoadBalancers the dispatcher can use, selected per run.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.List;
+
+public enum BalancerType {
+    //join the shortest queue, through the RouterLoadIndex
+    JSQ,
+    //the shortest of a few Routers sampled at random
+    POWEROFD,
+    //every Router in turn
+    ROUNDROBIN,
+    //consistent hashing on the packet ID
+    HASH,
+    //the fewest bytes waiting
+    LEASTWORK;
+
+    /**
+     * Returns the BalancerType with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the balancer, "jsq", "powerofd", "roundrobin", "hash" or "leastwork".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any balancer.
+     *
+     * @return
+     * 		BalancerType with the given name.
+     * */
+    public static BalancerType parse(String name) throws IllegalArgumentException {
+        for(BalancerType type : values())
+            if(type.name().equalsIgnoreCase(name.trim()))
+                return type;
+
+        throw new IllegalArgumentException("Invalid balancer: " + name +
+                ". Please enter jsq, powerofd, roundrobin, hash or leastwork.");
+    }
+
+    /**
+     * Creates a LoadBalancer of this type over empty Routers.
+     *
+     * @param routers
+     * 		Intermediate Routers.
+     *
+     * @param loadIndex
+     * 		Index over the intermediate Routers.
+     *
+     * @param store
+     * 		PacketStore holding the packets.
+     *
+     * @param config
+     * 		Settings of the simulation, giving the number of choices of powerofd.
+     *
+     * @param random
+     * 		RandomSource of the balancer, used by powerofd.
+     *
+     * @return
+     * 		New LoadBalancer.
+     * */
+    public LoadBalancer create(List<Router> routers, RouterLoadIndex loadIndex, PacketStore store,
+                               SimulationConfig config, RandomSource random) {
+        switch(this) {
+            case POWEROFD:
+                return new PowerOfChoicesBalancer(routers, config.getChoices(), random);
+            case ROUNDROBIN:
+                return new RoundRobinBalancer(routers);
+            case HASH:
+                return new ConsistentHashBalancer(routers.size(), store);
+            case LEASTWORK:
+                return new LeastWorkBalancer(routers, store);
+            default:
+                return new ShortestQueueBalancer(loadIndex);
+        }
+    }
+}
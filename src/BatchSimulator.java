@@ -0,0 +1,215 @@
+/**
+ * The BatchSimulator class runs a Simulator without asking for user input.
+ * The configuration is read from key=value command line arguments and, optionally,
+ * from a properties file given as config=path. Arguments override the file.
+ *
+ * <p>Recognized keys: routers, arrivalProb, bufferSize, maxPackets, minPacketSize,
+ * maxPacketSize, bandwidth, duration, seed, engine (tick, event or parallel), shards, level (off, summary, tick or packet)
+ * and output (a file path, standard output when absent). Runs with the same seed give the same results.
+ * With topology=path the packets go hop by hop through the network described in the topology file,
+ * whose routers and links replace routers and bandwidth; it cannot be combined with trace, record,
+ * checkpoint, resume, results or jmx.
+ * With trace=path the packets are replayed from a binary trace file instead of being generated, and
+ * record=path writes the packets of the run to a trace file. checkpoint=path saves the state of the run
+ * every checkpointEvery simulation units (1000000 by default), and resume=path continues a saved run.
+ * jmx=name publishes the progress of the run as a JMX MBean with that name, and jfrTickEvery and
+ * jfrDropEvery sample the Flight Recorder events (1000 simulation units and 1 drop by default).
+ * results=path exports every delivered and dropped packet and the queue depths of every resultsEvery
+ * simulation units (1 by default), in the resultsFormat binary (default) or csv. Both intervals count
+ * simulation units, including the ones engine=event skips.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+public class BatchSimulator {
+
+    //keys that only the Simulator supports, refused with a topology
+    private static final String[] SIMULATOR_ONLY_KEYS = {"trace", "record", "checkpoint", "resume", "results", "jmx"};
+
+    /**
+     * Reads the configuration from the command line arguments and the optional properties file.
+     *
+     * @param args
+     * 		Command line arguments in the form key=value.
+     *
+     * @throws IOException
+     * 		when the properties file cannot be read.
+     *
+     * @throws IllegalArgumentException
+     * 		when an argument is not in the form key=value.
+     *
+     * @return
+     * 		Configuration of the run.
+     * */
+    public static Properties readConfig(String[] args) throws IOException, IllegalArgumentException {
+        Properties overrides = new Properties();
+        for(String arg : args) {
+            int split = arg.indexOf('=');
+            if(split <= 0)
+                throw new IllegalArgumentException("Invalid argument: " + arg + ". Expected key=value.");
+            overrides.setProperty(arg.substring(0, split).trim(), arg.substring(split + 1).trim());
+        }
+
+        Properties config = new Properties();
+        String file = overrides.getProperty("config");
+        if(file != null)
+            try(InputStream in = new FileInputStream(file)) {
+                config.load(in);
+            }
+        config.putAll(overrides);
+        return config;
+    }
+
+    /**
+     * Returns the non-negative integer stored under the given key.
+     *
+     * @param config
+     * 		Configuration of the run.
+     *
+     * @param key
+     * 		Name of the value.
+     *
+     * @param defaultValue
+     * 		Value used when the key is absent.
+     *
+     * @throws IllegalArgumentException
+     * 		when the value is not an integer or is negative.
+     *
+     * @return
+     * 		Value stored under the key.
+     * */
+    static int getInt(Properties config, String key, int defaultValue) throws IllegalArgumentException {
+        String value = config.getProperty(key);
+        if(value == null)
+            return defaultValue;
+
+        int intValue;
+        try {
+            intValue = Integer.parseInt(value.trim());
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+        if(intValue < 0)
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value +
+                    ". Please enter a positive integer.");
+
+        return intValue;
+    }
+
+    /**
+     * Runs a Simulator whose packets are generated or replayed from a trace file, optionally recording them,
+     * taking checkpoints or resuming from one.
+     *
+     * @param settings
+     * 		Settings of the simulation.
+     *
+     * @param config
+     * 		Configuration of the run, holding the optional trace, record, checkpoint, checkpointEvery, resume, jmx,
+     * 		jfrTickEvery, jfrDropEvery, results, resultsFormat and resultsEvery keys.
+     *
+     * @param events
+     * 		EventSink receiving the reports.
+     *
+     * @throws IOException
+     * 		when a trace or checkpoint file cannot be read or written.
+     * */
+    private static void simulate(SimulationConfig settings, Properties config, EventSink events)
+            throws IOException, EmptyBufferException {
+        String traceFile = config.getProperty("trace"), recordFile = config.getProperty("record");
+        String checkpointFile = config.getProperty("checkpoint"), resumeFile = config.getProperty("resume");
+        TraceArrivals trace = null;
+        TraceWriter recorder = null;
+        SimulatorMonitor monitor = null;
+        ResultsWriter results = null;
+        try {
+            ArrivalSource arrivals;
+            if(traceFile == null) {
+                arrivals = settings.getArrivals().create(settings, new RandomSource(settings.getSeed()));
+            } else {
+                trace = new TraceArrivals(traceFile);
+                arrivals = trace;
+                //the dispatcher must hold every packet arriving in one simulation unit of the trace
+                settings = settings.toBuilder()
+                        .maxPackets(Math.max(settings.getMaxPackets(), trace.getMaxPacketsPerUnit())).build();
+            }
+            if(recordFile != null)
+                arrivals = recorder = new TraceWriter(arrivals, recordFile);
+
+            Simulator simulator = new Simulator(settings, arrivals);
+            simulator.setEventSink(events);
+            if(resumeFile != null)
+                simulator.restore(resumeFile);
+            if(checkpointFile != null)
+                simulator.setCheckpoint(checkpointFile, getInt(config, "checkpointEvery", 1000000));
+            simulator.setFlightEvents(getInt(config, "jfrTickEvery", 1000), getInt(config, "jfrDropEvery", 1));
+            if(config.getProperty("results") != null) {
+                results = new ResultsWriter(config.getProperty("results"),
+                        ResultsWriter.Format.parse(config.getProperty("resultsFormat", "binary")),
+                        settings.getNumIntRouters(), getInt(config, "resultsEvery", 1));
+                simulator.setResults(results);
+            }
+            monitor = simulator.getMonitor();
+            if(config.getProperty("jmx") != null)
+                monitor.register(config.getProperty("jmx"));
+            Simulator.simulate(simulator);
+        } finally {
+            if(monitor != null)
+                monitor.close();
+            if(results != null)
+                results.close();
+            if(recorder != null)
+                recorder.close();
+            if(trace != null)
+                trace.close();
+        }
+    }
+
+    /**
+     * The main method creates a Simulator, or a TopologySimulator, from the command line arguments, runs it and
+     * reports the events up to the configured level.
+     *
+     * @param args
+     * 		Command line arguments in the form key=value.
+     * */
+    public static void main(String[] args) {
+        try {
+            Properties config = readConfig(args);
+            SimulationConfig settings = SimulationConfig.fromProperties(config);
+            String topologyFile = config.getProperty("topology");
+            if(topologyFile != null)
+                for(String key : SIMULATOR_ONLY_KEYS)
+                    if(config.getProperty(key) != null)
+                        throw new IllegalArgumentException("The " + key + " key is not supported with a topology. " +
+                                "Please remove " + key + " or topology.");
+            Topology topology = (topologyFile == null) ? null : Topology.load(topologyFile);
+            EventLevel level = EventLevel.parse(config.getProperty("level", "summary"));
+            String output = config.getProperty("output");
+
+            OutputStream out = (output == null) ? System.out : new FileOutputStream(output);
+            PrintEventSink events = new PrintEventSink(out, level);
+            try {
+                if(topology == null) {
+                    simulate(settings, config, events);
+                } else {
+                    TopologySimulator simulator = new TopologySimulator(settings, topology);
+                    simulator.setEventSink(events);
+                    TopologySimulator.simulate(simulator);
+                }
+            } finally {
+                if(output == null)
+                    events.flush();
+                else
+                    events.close();
+            }
+        } catch(IOException | EmptyBufferException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * The BernoulliArrivals class is the ArrivalSource of the original simulator: in every simulation
+ * unit, each of maxPackets packets arrives with the given probability, and its size is drawn
+ * uniformly from [minPacketSize, maxPacketSize], or from the given PacketSizes.
+ *
+ * <p>Instead of drawing every trial, the number of failed trials before the next arrival is drawn
+ * from the geometric distribution, so the cost is proportional to the number of packets
+ * rather than the number of simulation units.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class BernoulliArrivals implements ArrivalSource, Checkpointable {
+
+    private final int maxPackets;
+    private final double arrivalProb;
+    private final PacketSizes sizes;
+    private final RandomSource random;
+    //log(1 - arrivalProb), used to draw the number of failed trials
+    private final double logFailure;
+    //index of the trial of the next arrival, counting maxPackets trials per simulation unit
+    private long nextTrial;
+
+    /**
+     * Constructor creates a BernoulliArrivals with the given parameters. The first simulation unit is 1.
+     *
+     * @param maxPackets
+     * 		Maximum number of packets arriving in one simulation unit.
+     *
+     * @param arrivalProb
+     * 		Probability in which a packet will arrive at dispatcher.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param random
+     * 		RandomSource deciding the arrivals and the packet sizes.
+     * */
+    public BernoulliArrivals(int maxPackets, double arrivalProb, int minPacketSize, int maxPacketSize,
+                             RandomSource random) {
+        this(maxPackets, arrivalProb, PacketSizes.uniform(minPacketSize, maxPacketSize), random);
+    }
+
+    /**
+     * Constructor creates a BernoulliArrivals whose packet sizes follow the given PacketSizes.
+     * The first simulation unit is 1.
+     *
+     * @param maxPackets
+     * 		Maximum number of packets arriving in one simulation unit.
+     *
+     * @param arrivalProb
+     * 		Probability in which a packet will arrive at dispatcher.
+     *
+     * @param sizes
+     * 		Sizes of the arriving packets.
+     *
+     * @param random
+     * 		RandomSource deciding the arrivals and the packet sizes.
+     * */
+    public BernoulliArrivals(int maxPackets, double arrivalProb, PacketSizes sizes, RandomSource random) {
+        this.maxPackets = maxPackets;
+        this.arrivalProb = arrivalProb;
+        this.sizes = sizes;
+        this.random = random;
+        this.logFailure = Math.log1p(-arrivalProb);
+        nextTrial = (maxPackets > 0 && arrivalProb > 0) ? failedTrials() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Draws the number of failed trials before the next arrival.
+     *
+     * @return
+     * 		Number of failed trials.
+     * */
+    private long failedTrials() {
+        if(arrivalProb >= 1)
+            return 0;
+        return random.nextGeometric(logFailure);
+    }
+
+    @Override
+    public int nextTime() {
+        if(nextTrial == Long.MAX_VALUE)
+            return Integer.MAX_VALUE;
+        long time = nextTrial / maxPackets + 1;
+        return time < Integer.MAX_VALUE ? (int) time : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(nextTrial);
+        random.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        nextTrial = in.readLong();
+        random.readState(in);
+    }
+
+    @Override
+    public int take() {
+        long skip = failedTrials();
+        nextTrial = (skip < Long.MAX_VALUE - 1 - nextTrial) ? nextTrial + 1 + skip : Long.MAX_VALUE;
+        return sizes.sample(random);
+    }
+}
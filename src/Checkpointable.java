@@ -0,0 +1,36 @@
+/**
+ * The Checkpointable interface is implemented by the parts of a simulation whose state can be saved
+ * at the end of a simulation unit and restored later, so that a run continues exactly as if it had
+ * never stopped.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface Checkpointable {
+
+    /**
+     * Writes the state of this object.
+     *
+     * @param out
+     * 		Output receiving the state.
+     *
+     * @throws IOException
+     * 		when the state cannot be written.
+     * */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Replaces the state of this object with a state written by {@link #writeState(DataOutput)} on an
+     * object created with the same settings.
+     *
+     * @param in
+     * 		Input holding the state.
+     *
+     * @throws IOException
+     * 		when the state cannot be read.
+     * */
+    void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,88 @@
+/**
+ * The ConsistentHashBalancer class is a LoadBalancer sending each packet to the Router that owns the
+ * hash of its ID on a hash ring, as a stateless front end would do for the flows of a connection. Each
+ * Router owns several points of the ring, so the packets spread evenly, and adding or removing a
+ * Router only moves the packets of its own points. A packet whose Router is full is dropped.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.Arrays;
+
+public class ConsistentHashBalancer implements LoadBalancer {
+
+    //points of the ring owned by each Router
+    public static final int POINTS_PER_ROUTER = 16;
+
+    private final PacketStore store;
+    //sorted hashes of the points of the ring, and the Router owning each point
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Constructor creates a ConsistentHashBalancer over the given number of Routers.
+     *
+     * @param numRouters
+     * 		Number of intermediate Routers.
+     *
+     * @param store
+     * 		PacketStore holding the packets of the dispatcher.
+     * */
+    public ConsistentHashBalancer(int numRouters, PacketStore store) {
+        this.store = store;
+        int n = numRouters * POINTS_PER_ROUTER;
+        //sort (hash, router) pairs by hash; the owner is recovered from the low bits of each entry
+        long[] entries = new long[n];
+        int ownerBits = 64 - Long.numberOfLeadingZeros(Math.max(numRouters - 1, 1));
+        for(int router = 0, i = 0; router < numRouters; router++)
+            for(int point = 0; point < POINTS_PER_ROUTER; point++, i++)
+                entries[i] = (hash((long) router * POINTS_PER_ROUTER + point) >>> ownerBits << ownerBits) | router;
+        Arrays.sort(entries);
+        points = new long[n];
+        owners = new int[n];
+        long mask = (1L << ownerBits) - 1;
+        for(int i = 0; i < n; i++) {
+            points[i] = entries[i];
+            owners[i] = (int) (entries[i] & mask);
+        }
+    }
+
+    /**
+     * Mixes the bits of a number (the finalizer of SplitMix64), mapping consecutive numbers to spread out hashes.
+     *
+     * @param z
+     * 		Number being hashed.
+     *
+     * @return
+     * 		Hash of the number.
+     * */
+    static long hash(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the Router owning the first point of the ring at or after the hash of the packet ID.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @return
+     * 		Position of the Router, or -1 if there is no Router.
+     * */
+    public int routerOf(int id) {
+        if(points.length == 0)
+            return -1;
+        int i = Arrays.binarySearch(points, hash(~(long) id));
+        if(i < 0)
+            i = -i - 1;
+        return owners[i == points.length ? 0 : i];
+    }
+
+    @Override
+    public void assign(Router dispatcher, int[] targets) {
+        int packets = dispatcher.size();
+        for(int i = 0; i < packets; i++)
+            targets[i] = routerOf(store.getId(dispatcher.getSlot(i)));
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * The DeficitRoundRobinQueue class is a bucketed weighted fair QueueDiscipline: packets are sorted into
+ * classes by size, each class keeps its own FIFO bucket, and the buckets take turns sending packets
+ * with a deficit counter so that every class gets an equal share of the bytes sent, whatever the size
+ * of its packets (deficit round robin, an O(1) approximation of weighted fair queuing).
+ *
+ * <p>At the start of its turn a class earns a quantum of bytes; it sends packets while its deficit
+ * covers the size of its front packet, and keeps the remaining deficit for its next turn. A class whose
+ * bucket empties loses its deficit.
+ *
+ * <p>The buckets share one pool of capacity nodes: each class is a linked list through a next array,
+ * so the memory does not grow with the number of classes. Looking at the next packet works out whose
+ * turn it is without giving out any quantum; only taking the packet moves the turns on.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntUnaryOperator;
+
+public class DeficitRoundRobinQueue implements QueueDiscipline {
+
+    private final PacketStore store;
+    private final IntUnaryOperator classOfSize;
+    private final int capacity, quantum;
+    //pool of nodes shared by every class: the slot of each node and the node after it, -1 at the end;
+    //unused nodes are linked from freeNode
+    private final int[] nodeSlots, nextNode;
+    private int freeNode;
+    //first and last node of each class, -1 when empty, and its number of packets
+    private final int[] firstNodes, lastNodes, sizes;
+    private final long[] deficits;
+    //classes with packets, in the order of their turns, as a ring starting at activeHead
+    private final int[] active;
+    private int activeHead, activeCount, size;
+    //whether the class at activeHead already earned its quantum in this turn
+    private boolean turnStarted;
+
+    /**
+     * Constructor creates an empty DeficitRoundRobinQueue.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the queue, shared by every class.
+     *
+     * @param store
+     * 		PacketStore holding the packets.
+     *
+     * @param classes
+     * 		Number of classes.
+     *
+     * @param classOfSize
+     * 		Class of a packet of the given size, in the range [0, classes).
+     *
+     * @param quantum
+     * 		Bytes each class earns per turn; at least the largest packet size, so every turn sends a packet.
+     * */
+    public DeficitRoundRobinQueue(int capacity, PacketStore store, int classes, IntUnaryOperator classOfSize,
+                                  int quantum) {
+        this.store = store;
+        this.classOfSize = classOfSize;
+        this.capacity = capacity;
+        this.quantum = Math.max(quantum, 1);
+        nodeSlots = new int[capacity];
+        nextNode = new int[capacity];
+        firstNodes = new int[classes];
+        lastNodes = new int[classes];
+        sizes = new int[classes];
+        deficits = new long[classes];
+        active = new int[classes];
+        clear();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int slot) {
+        int c = classOfSize.applyAsInt(store.getPacketSize(slot));
+        int node = freeNode;
+        freeNode = nextNode[node];
+        nodeSlots[node] = slot;
+        nextNode[node] = -1;
+        if(sizes[c]++ == 0) {
+            firstNodes[c] = node;
+            int end = activeHead + activeCount++;
+            active[end < active.length ? end : end - active.length] = c;
+        } else {
+            nextNode[lastNodes[c]] = node;
+        }
+        lastNodes[c] = node;
+        size++;
+    }
+
+    /**
+     * Works out the class sending the next packet without changing the turns: the class at activeHead
+     * sends if its deficit, with the quantum of this turn if not yet earned, covers its front packet;
+     * otherwise the following classes are tried in turn, each earning one quantum per round.
+     *
+     * @return
+     * 		Class of the next packet, or -1 if the queue is empty.
+     * */
+    private int peekClass() {
+        if(size == 0)
+            return -1;
+        for(long turn = 0; ; turn++) {
+            int position = (int) (turn % activeCount), index = activeHead + position;
+            int c = active[index < active.length ? index : index - active.length];
+            //quanta earned by the class by this turn, on top of its deficit
+            long rounds = turn / activeCount + ((position == 0 && turnStarted) ? 0 : 1);
+            if(store.getPacketSize(nodeSlots[firstNodes[c]]) <= deficits[c] + rounds * quantum)
+                return c;
+        }
+    }
+
+    /**
+     * Gives turns to the classes until the class sending the next packet has its turn.
+     *
+     * @return
+     * 		Class of the next packet, or -1 if the queue is empty.
+     * */
+    private int nextClass() {
+        if(size == 0)
+            return -1;
+        while(true) {
+            int c = active[activeHead];
+            if(!turnStarted) {
+                deficits[c] += quantum;
+                turnStarted = true;
+            }
+            if(store.getPacketSize(nodeSlots[firstNodes[c]]) <= deficits[c])
+                return c;
+            //the class keeps its deficit and waits for its next turn
+            activeHead = (activeHead + 1 == active.length) ? 0 : activeHead + 1;
+            active[(activeHead + activeCount - 1) % active.length] = c;
+            turnStarted = false;
+        }
+    }
+
+    @Override
+    public int peek() {
+        int c = peekClass();
+        return c == -1 ? -1 : nodeSlots[firstNodes[c]];
+    }
+
+    @Override
+    public int poll() {
+        int c = nextClass();
+        if(c == -1)
+            return -1;
+
+        int node = firstNodes[c], slot = nodeSlots[node];
+        firstNodes[c] = nextNode[node];
+        nextNode[node] = freeNode;
+        freeNode = node;
+        sizes[c]--;
+        size--;
+        deficits[c] -= store.getPacketSize(slot);
+        if(sizes[c] == 0) {
+            firstNodes[c] = -1;
+            lastNodes[c] = -1;
+            deficits[c] = 0;
+            activeHead = (activeHead + 1 == active.length) ? 0 : activeHead + 1;
+            activeCount--;
+            turnStarted = false;
+        }
+        return slot;
+    }
+
+    @Override
+    public int get(int i) {
+        int c = 0;
+        while(i >= sizes[c])
+            i -= sizes[c++];
+        int node = firstNodes[c];
+        while(i-- > 0)
+            node = nextNode[node];
+        return nodeSlots[node];
+    }
+
+    @Override
+    public void clear() {
+        for(int node = 0; node < capacity; node++)
+            nextNode[node] = (node + 1 < capacity) ? node + 1 : -1;
+        freeNode = (capacity > 0) ? 0 : -1;
+        for(int c = 0; c < sizes.length; c++) {
+            firstNodes[c] = -1;
+            lastNodes[c] = -1;
+            sizes[c] = 0;
+            deficits[c] = 0;
+        }
+        activeHead = 0;
+        activeCount = 0;
+        size = 0;
+        turnStarted = false;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        for(long deficit : deficits)
+            out.writeLong(deficit);
+        out.writeInt(activeCount);
+        for(int i = 0; i < activeCount; i++)
+            out.writeInt(active[(activeHead + i) % active.length]);
+        out.writeBoolean(turnStarted);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        for(int c = 0; c < deficits.length; c++)
+            deficits[c] = in.readLong();
+        int count = in.readInt();
+        if(count != activeCount)
+            throw new IOException("The checkpoint does not match the packets of the queue.");
+        activeHead = 0;
+        for(int i = 0; i < count; i++)
+            active[i] = in.readInt();
+        turnStarted = in.readBoolean();
+    }
+}
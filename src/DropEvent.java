@@ -0,0 +1,33 @@
+/**
+ * The DropEvent class is a JDK Flight Recorder event for a packet dropped by a Simulator. Only one
+ * drop in every dropEvery is recorded; the event counts the drops it stands for.
+ *
+ * @author Zhen Wei Liao
+ **/
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("PacketSimulator.Drop")
+@Label("Packet Dropped")
+@Category("Packet Simulator")
+@Description("Packet dropped by a Simulator, sampled every dropEvery drops")
+@StackTrace(false)
+public class DropEvent extends jdk.jfr.Event {
+
+    @Label("Packet ID")
+    int packetId;
+
+    @Label("Router")
+    @Description("Router that refused the packet, or 0 when every router was full")
+    int router;
+
+    @Label("Simulation Unit")
+    int simulationUnit;
+
+    @Label("Drops Represented")
+    @Description("Drops since the previous recorded one, this one included")
+    int drops;
+}
@@ -0,0 +1,127 @@
+/**
+ * The DueTimeQueue class keeps, for each Router, the simulation unit in which its front packet
+ * becomes ready to be sent to the destination. It returns the Routers in order of that time,
+ * lowest position first among Routers due at the same time.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class DueTimeQueue implements Checkpointable {
+
+    //min-heap of router positions and the due time of each position
+    private final int[] heap, dueTimes;
+    private int size;
+
+    /**
+     * Constructor creates an empty DueTimeQueue for the given number of Routers.
+     *
+     * @param numRouters
+     * 		Number of Routers whose positions can be added.
+     * */
+    public DueTimeQueue(int numRouters) {
+        heap = new int[numRouters];
+        dueTimes = new int[numRouters];
+    }
+
+    /**
+     * Determines if no Router is waiting.
+     *
+     * @return
+     * 		true if no Router is waiting, false otherwise.
+     * */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a Router that becomes ready at the given time. A Router is added at most once at a time.
+     *
+     * @param router
+     * 		Position of the Router.
+     *
+     * @param dueTime
+     * 		Simulation unit in which the front packet of the Router becomes ready.
+     * */
+    public void add(int router, int dueTime) {
+        dueTimes[router] = dueTime;
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!before(router, heap[parent]))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = router;
+    }
+
+    /**
+     * Returns the earliest due time among the waiting Routers.
+     *
+     * @return
+     * 		Earliest due time, or Integer.MAX_VALUE if no Router is waiting.
+     * */
+    public int peekTime() {
+        return size == 0 ? Integer.MAX_VALUE : dueTimes[heap[0]];
+    }
+
+    /**
+     * Removes and returns the Router with the earliest due time.
+     *
+     * @return
+     * 		Position of the Router, or -1 if no Router is waiting.
+     * */
+    public int poll() {
+        if(size == 0)
+            return -1;
+
+        int first = heap[0], last = heap[--size], i = 0;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && before(heap[child + 1], heap[child]))
+                child++;
+            if(!before(heap[child], last))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if(size > 0)
+            heap[i] = last;
+        return first;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for(int i = 0; i < size; i++) {
+            out.writeInt(heap[i]);
+            out.writeInt(dueTimes[heap[i]]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        clear();
+        int count = in.readInt();
+        for(int i = 0; i < count; i++) {
+            int router = in.readInt();
+            add(router, in.readInt());
+        }
+    }
+
+    /**
+     * Removes every Router.
+     * */
+    public void clear() {
+        size = 0;
+    }
+
+    private boolean before(int a, int b) {
+        return dueTimes[a] != dueTimes[b] ? dueTimes[a] < dueTimes[b] : a < b;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * The EventLevel enum lists how much of a simulation an EventSink reports.
+ * Each level includes everything reported by the levels before it.
+ *
+ * @author Zhen Wei Liao
+ **/
+public enum EventLevel {
+    //nothing is reported
+    OFF,
+    //only the statistics at the end of the simulation
+    SUMMARY,
+    //the simulation unit and the contents of every router, once per simulation unit
+    TICK,
+    //every packet arriving, being sent, dropped or reaching its destination
+    PACKET;
+
+    /**
+     * Determines if this level reports the events of the given level.
+     *
+     * @param level
+     * 		Level of the event being reported.
+     *
+     * @return
+     * 		true if events of the given level are reported, false otherwise.
+     * */
+    public boolean includes(EventLevel level) {
+        return level.ordinal() <= ordinal();
+    }
+
+    /**
+     * Returns the EventLevel with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the level, such as "off", "summary", "tick" or "packet".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any level.
+     *
+     * @return
+     * 		EventLevel with the given name.
+     * */
+    public static EventLevel parse(String name) throws IllegalArgumentException {
+        for(EventLevel level : values())
+            if(level.name().equalsIgnoreCase(name.trim()))
+                return level;
+
+        throw new IllegalArgumentException("Invalid event level: " + name +
+                ". Please enter off, summary, tick or packet.");
+    }
+}
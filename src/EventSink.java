@@ -0,0 +1,162 @@
+/**
+ * The EventSink interface receives everything a Simulator reports while it runs.
+ * Events are passed as primitive values so that a sink which does not report a level
+ * never pays for building the message. Every event is ignored unless a sink overrides it.
+ *
+ * @author Zhen Wei Liao
+ **/
+public interface EventSink {
+
+    //sink that reports nothing
+    EventSink NONE = level -> false;
+
+    /**
+     * Determines if events of the given level are reported by this sink.
+     *
+     * @param level
+     * 		Level of the event.
+     *
+     * @return
+     * 		true if the events are reported, false otherwise.
+     * */
+    boolean isEnabled(EventLevel level);
+
+    /**
+     * Reports the start of a simulation unit.
+     *
+     * @param time
+     * 		Current simulation unit.
+     * */
+    default void tickStarted(int time) {
+    }
+
+    /**
+     * Reports a packet arriving at the dispatcher.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param size
+     * 		Size of the packet.
+     * */
+    default void packetArrived(int id, int size) {
+    }
+
+    /**
+     * Reports that no packet arrived at the dispatcher during the current simulation unit.
+     * */
+    default void noPacketsArrived() {
+    }
+
+    /**
+     * Reports a packet being sent from the dispatcher to an intermediate router.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param router
+     * 		Number of the router receiving the packet, starting from 1.
+     * */
+    default void packetSent(int id, int router) {
+    }
+
+    /**
+     * Reports a packet being dropped because the network is congested.
+     *
+     * @param id
+     * 		ID of the packet.
+     * */
+    default void packetDropped(int id) {
+    }
+
+    /**
+     * Reports a packet reaching its destination.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param serviceTime
+     * 		Time the packet spent in the network.
+     * */
+    default void packetDelivered(int id, int serviceTime) {
+    }
+
+    /**
+     * Reports the contents of an intermediate router at the end of a simulation unit.
+     *
+     * @param router
+     * 		Number of the router, starting from 1.
+     *
+     * @param queue
+     * 		The router itself.
+     * */
+    default void routerState(int router, Router queue) {
+    }
+
+    /**
+     * Reports that no packet reached the destination during the whole simulation.
+     * */
+    default void noPacketsDelivered() {
+    }
+
+    /**
+     * Reports the statistics of a finished simulation.
+     *
+     * @param totalServiceTime
+     * 		Sum of the total time each packet is in the network.
+     *
+     * @param packetsServed
+     * 		Number of packets that reached the destination.
+     *
+     * @param averageServiceTime
+     * 		Average time each packet is in the network.
+     *
+     * @param packetsDropped
+     * 		Number of packets dropped due to a congested network.
+     * */
+    default void summary(long totalServiceTime, long packetsServed, double averageServiceTime, long packetsDropped) {
+    }
+
+    /**
+     * Reports the distribution of the time delivered packets spent in the network.
+     *
+     * @param serviceTimes
+     * 		Histogram of service times.
+     * */
+    default void serviceTimes(LatencyHistogram serviceTimes) {
+    }
+
+    /**
+     * Reports the statistics of a finished simulation counted after its warm-up.
+     *
+     * @param warmupEnd
+     * 		First simulation unit after the warm-up.
+     *
+     * @param steadyTicks
+     * 		Number of simulation units after the warm-up.
+     *
+     * @param averageServiceTime
+     * 		Average time each packet delivered after the warm-up is in the network.
+     *
+     * @param dropRate
+     * 		Fraction of the packets arriving after the warm-up that were dropped.
+     *
+     * @param queueDepth
+     * 		Average number of packets in the intermediate routers after the warm-up.
+     * */
+    default void steadyState(int warmupEnd, long steadyTicks, double averageServiceTime, double dropRate,
+                             double queueDepth) {
+    }
+
+    /**
+     * Reports that the simulation ended before the end of its warm-up was found.
+     * */
+    default void noSteadyState() {
+    }
+
+    /**
+     * Writes out anything the sink is still holding.
+     * */
+    default void flush() {
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * The FifoQueue class is the first in, first out QueueDiscipline of the original Router: a fixed-capacity
+ * ring buffer of slots, in which adding and removing a packet takes constant time.
+ *
+ * @author Zhen Wei Liao
+ **/
+public class FifoQueue implements QueueDiscipline {
+
+    private final int[] buffer;
+    //index of the front of the queue and number of packets in the queue
+    private int head, size;
+
+    /**
+     * Constructor creates an empty FifoQueue.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the queue.
+     * */
+    public FifoQueue(int capacity) {
+        buffer = new int[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int slot) {
+        int tail = head + size;
+        buffer[tail < buffer.length ? tail : tail - buffer.length] = slot;
+        size++;
+    }
+
+    @Override
+    public int peek() {
+        return size == 0 ? -1 : buffer[head];
+    }
+
+    @Override
+    public int poll() {
+        if(size == 0)
+            return -1;
+        int slot = buffer[head];
+        head = (head + 1 == buffer.length) ? 0 : head + 1;
+        size--;
+        return slot;
+    }
+
+    @Override
+    public int get(int i) {
+        int index = head + i;
+        return buffer[index < buffer.length ? index : index - buffer.length];
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
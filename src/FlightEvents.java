@@ -0,0 +1,119 @@
+/**
+ * The FlightEvents class emits the TickEvents and DropEvents of a Simulator. Each call first checks
+ * whether a recording has the event enabled, which is a field read, so a run without JDK Flight Recorder
+ * pays almost nothing and allocates nothing. While recording, one TickEvent covers tickEvery simulation
+ * units and one DropEvent is recorded for every dropEvery drops, which bounds the overhead in the hot loop.
+ * Under the event engine a TickEvent ends at the first unit run or skipped once tickEvery units are covered,
+ * so it may cover a few more; its firstUnit and lastUnit give the units it counts.
+ * The events can also be switched off or given a threshold in the recording settings, by their names
+ * PacketSimulator.Tick and PacketSimulator.Drop.
+ *
+ * @author Zhen Wei Liao
+ **/
+import jdk.jfr.EventType;
+
+public class FlightEvents {
+
+    private static final EventType TICK = EventType.getEventType(TickEvent.class),
+            DROP = EventType.getEventType(DropEvent.class);
+
+    private final SimulationMetrics metrics;
+    private final int tickEvery, dropEvery;
+    //event of the simulation units being covered, null when none is open
+    private TickEvent window;
+    private long windowArrived, windowDelivered, windowDropped;
+    private int dropsSinceEvent;
+
+    /**
+     * Constructor creates FlightEvents with the given sampling.
+     *
+     * @param metrics
+     * 		Statistics of the Simulator, giving the counts of the TickEvents.
+     *
+     * @param tickEvery
+     * 		Number of simulation units covered by one TickEvent.
+     *
+     * @param dropEvery
+     * 		Number of drops for which one DropEvent is recorded.
+     *
+     * @throws IllegalArgumentException
+     * 		when tickEvery or dropEvery is not positive.
+     * */
+    public FlightEvents(SimulationMetrics metrics, int tickEvery, int dropEvery) throws IllegalArgumentException {
+        if(tickEvery <= 0 || dropEvery <= 0)
+            throw new IllegalArgumentException("Invalid event sampling: " + tickEvery + ", " + dropEvery +
+                    ". Please enter positive integers.");
+        this.metrics = metrics;
+        this.tickEvery = tickEvery;
+        this.dropEvery = dropEvery;
+    }
+
+    /**
+     * Records the end of a simulation unit, opening a TickEvent before it if none is open and committing
+     * the open one once it covers tickEvery simulation units. The units skipped since the last call count
+     * as well.
+     *
+     * @param time
+     * 		Simulation unit completed.
+     *
+     * @param backlog
+     * 		Packets the dispatcher held at the start of the dispatch in this simulation unit.
+     * */
+    public void ticked(int time, int backlog) {
+        if(window == null) {
+            if(!TICK.isEnabled())
+                return;
+            //the first window starts at the end of this unit; every later one starts where the last ended
+            open(time + 1);
+            return;
+        }
+        if(time - window.firstUnit + 1 < tickEvery)
+            return;
+        TickEvent event = window;
+        event.end();
+        event.lastUnit = time;
+        event.packetsArrived = metrics.getPacketsArrived() - windowArrived;
+        event.packetsDelivered = metrics.getPacketsDelivered() - windowDelivered;
+        event.packetsDropped = metrics.getPacketsDropped() - windowDropped;
+        event.dispatcherBacklog = backlog;
+        event.commit();
+        window = null;
+        if(TICK.isEnabled())
+            open(time + 1);
+    }
+
+    private void open(int firstUnit) {
+        window = new TickEvent();
+        window.firstUnit = firstUnit;
+        windowArrived = metrics.getPacketsArrived();
+        windowDelivered = metrics.getPacketsDelivered();
+        windowDropped = metrics.getPacketsDropped();
+        window.begin();
+    }
+
+    /**
+     * Records a dropped packet, committing a DropEvent for every dropEvery drops.
+     *
+     * @param packetId
+     * 		ID of the packet.
+     *
+     * @param router
+     * 		Router number that refused the packet, or 0 when no router could take it.
+     *
+     * @param time
+     * 		Current simulation unit.
+     * */
+    public void dropped(int packetId, int router, int time) {
+        if(!DROP.isEnabled())
+            return;
+        if(++dropsSinceEvent < dropEvery)
+            return;
+        DropEvent event = new DropEvent();
+        event.packetId = packetId;
+        event.router = router;
+        event.simulationUnit = time;
+        event.drops = dropsSinceEvent;
+        event.commit();
+        dropsSinceEvent = 0;
+    }
+}
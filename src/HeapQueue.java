@@ -0,0 +1,105 @@
+/**
+ * The HeapQueue class is a QueueDiscipline sending the packet of lowest priority value first, such as the
+ * shortest packet or the packet of the most urgent class. Packets of the same priority are sent in
+ * order of ID, which is their order of arrival. The queue is a binary min-heap of slots, so adding and
+ * removing a packet takes O(log n) time.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.function.IntUnaryOperator;
+
+public class HeapQueue implements QueueDiscipline {
+
+    private final PacketStore store;
+    //priority value of a packet, computed from its size
+    private final IntUnaryOperator priorityOfSize;
+    //heap of slots and, at the same index, the key of each slot: priority in the high half, ID in the low half
+    private final int[] heap;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Constructor creates an empty HeapQueue.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the queue.
+     *
+     * @param store
+     * 		PacketStore holding the packets.
+     *
+     * @param priorityOfSize
+     * 		Priority value of a packet of the given size; lower values are sent first.
+     * */
+    public HeapQueue(int capacity, PacketStore store, IntUnaryOperator priorityOfSize) {
+        this.store = store;
+        this.priorityOfSize = priorityOfSize;
+        heap = new int[capacity];
+        keys = new long[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return heap.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int slot) {
+        long key = (long) priorityOfSize.applyAsInt(store.getPacketSize(slot)) << 32
+                | (store.getId(slot) & 0xffffffffL);
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(keys[parent] <= key)
+                break;
+            heap[i] = heap[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        heap[i] = slot;
+        keys[i] = key;
+    }
+
+    @Override
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    @Override
+    public int poll() {
+        if(size == 0)
+            return -1;
+
+        int first = heap[0], last = heap[--size], i = 0;
+        long lastKey = keys[size];
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && keys[child + 1] < keys[child])
+                child++;
+            if(lastKey <= keys[child])
+                break;
+            heap[i] = heap[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        heap[i] = last;
+        keys[i] = lastKey;
+        return first;
+    }
+
+    @Override
+    public int get(int i) {
+        return heap[i];
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * The LatencyHistogram class counts non-negative values in a fixed number of buckets whose width
+ * grows with the value (like HdrHistogram): values below 64 are counted exactly, larger values
+ * share a bucket with values less than about 3% away. Recording a value takes constant time and
+ * never allocates memory.
+ *
+ * <p>One thread records values; any other thread may read counts and percentiles at the same time
+ * and sees the values recorded so far, without stopping the recording thread.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram implements Checkpointable {
+
+    //values below 2^SUB_BUCKET_BITS get their own bucket; above, each power of two is split in HALF buckets
+    private static final int SUB_BUCKET_BITS = 6, SUB_BUCKETS = 1 << SUB_BUCKET_BITS, HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong(), sum = new AtomicLong(), max = new AtomicLong();
+
+    /**
+     * Returns the bucket counting the given value.
+     *
+     * @param value
+     * 		Non-negative value.
+     *
+     * @return
+     * 		Index of the bucket.
+     * */
+    static int bucketOf(long value) {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /**
+     * Returns the largest value counted by the given bucket.
+     *
+     * @param bucket
+     * 		Index of the bucket.
+     *
+     * @return
+     * 		Largest value of the bucket.
+     * */
+    static long highestValueOf(int bucket) {
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        long sub = (bucket - SUB_BUCKETS) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Counts a value once.
+     *
+     * @param value
+     * 		Value being counted. Negative values are counted as 0.
+     * */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Counts a value the given number of times.
+     *
+     * @param value
+     * 		Value being counted. Negative values are counted as 0.
+     *
+     * @param count
+     * 		Number of times the value is counted.
+     * */
+    public void record(long value, long count) {
+        if(count <= 0)
+            return;
+        value = Math.max(value, 0);
+        int bucket = bucketOf(value);
+        //only one thread records, so a release store is enough for readers to see the new counts
+        counts.lazySet(bucket, counts.get(bucket) + count);
+        sum.lazySet(sum.get() + value * count);
+        if(value > max.get())
+            max.lazySet(value);
+        totalCount.lazySet(totalCount.get() + count);
+    }
+
+    /**
+     * Returns the number of values counted.
+     *
+     * @return
+     * 		Number of values.
+     * */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the largest value counted.
+     *
+     * @return
+     * 		Largest value, or 0 if nothing was counted.
+     * */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the values counted.
+     *
+     * @return
+     * 		Mean value, or 0 if nothing was counted.
+     * */
+    public double getMean() {
+        long total = totalCount.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the counted values fall.
+     * The result is the largest value of its bucket, so it is at most about 3% above the exact value.
+     *
+     * @param percentile
+     * 		Percentage in the range [0, 100], such as 50 or 99.9.
+     *
+     * @return
+     * 		Value at the percentile, or 0 if nothing was counted.
+     * */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if(total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total)), seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if(seen >= rank)
+                return Math.min(highestValueOf(bucket), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Writes the counts of this LatencyHistogram, skipping the empty buckets.
+     *
+     * @param out
+     * 		Output receiving the counts.
+     * */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        int used = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++)
+            if(counts.get(bucket) != 0)
+                used++;
+        out.writeInt(used);
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            if(counts.get(bucket) != 0) {
+                out.writeShort(bucket);
+                out.writeLong(counts.get(bucket));
+            }
+        }
+        out.writeLong(totalCount.get());
+        out.writeLong(sum.get());
+        out.writeLong(max.get());
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        for(int bucket = 0; bucket < BUCKETS; bucket++)
+            counts.lazySet(bucket, 0);
+        int used = in.readInt();
+        for(int i = 0; i < used; i++) {
+            int bucket = in.readUnsignedShort();
+            if(bucket >= BUCKETS)
+                throw new IOException("Invalid histogram bucket: " + bucket + ".");
+            counts.lazySet(bucket, in.readLong());
+        }
+        totalCount.lazySet(in.readLong());
+        sum.lazySet(in.readLong());
+        max.lazySet(in.readLong());
+    }
+
+    /**
+     * Returns the string representation of the LatencyHistogram.
+     *
+     * @return
+     * 		Count, mean, p50, p99, p99.9 and max of the values.
+     * */
+    @Override
+    public String toString() {
+        return "count=" + getTotalCount() + " mean=" + getMean() + " p50=" + getValueAtPercentile(50) +
+                " p99=" + getValueAtPercentile(99) + " p99.9=" + getValueAtPercentile(99.9) + " max=" + getMax();
+    }
+}
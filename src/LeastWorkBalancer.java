@@ -0,0 +1,160 @@
+/**
+ * The LeastWorkBalancer class is a size-aware LoadBalancer sending each packet to the Router with the
+ * fewest bytes waiting, rather than the fewest packets, so that a Router holding a few large packets is
+ * not chosen over one holding many small ones. The Routers are kept in an indexed min-heap ordered by
+ * waiting bytes, so a choice takes O(log n) time.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+public class LeastWorkBalancer implements LoadBalancer {
+
+    private final List<Router> routers;
+    private final PacketStore store;
+    //bytes and packets waiting in each Router
+    private final long[] work;
+    private final int[] counts;
+    //heap of router positions and, for each router, its position in the heap
+    private final int[] heap, heapIndex;
+
+    /**
+     * Constructor creates a LeastWorkBalancer over empty Routers.
+     *
+     * @param routers
+     * 		Intermediate Routers.
+     *
+     * @param store
+     * 		PacketStore holding the packets.
+     * */
+    public LeastWorkBalancer(List<Router> routers, PacketStore store) {
+        this.routers = routers;
+        this.store = store;
+        int n = routers.size();
+        work = new long[n];
+        counts = new int[n];
+        heap = new int[n];
+        heapIndex = new int[n];
+        for(int i = 0; i < n; i++) {
+            heap[i] = i;
+            heapIndex[i] = i;
+        }
+    }
+
+    @Override
+    public void assign(Router dispatcher, int[] targets) {
+        int packets = dispatcher.size();
+        for(int i = 0; i < packets; i++) {
+            int router = heap.length == 0 ? -1 : heap[0];
+            if(router == -1 || isFull(router)) {
+                targets[i] = -1;
+                continue;
+            }
+            targets[i] = router;
+            change(router, store.getPacketSize(dispatcher.getSlot(i)), 1);
+        }
+        //the packets are counted again by added() once they are in the Routers
+        for(int i = 0; i < packets; i++)
+            if(targets[i] != -1)
+                change(targets[i], -store.getPacketSize(dispatcher.getSlot(i)), -1);
+    }
+
+    @Override
+    public void added(int router, int slot) {
+        change(router, store.getPacketSize(slot), 1);
+    }
+
+    @Override
+    public void removed(int router, int slot) {
+        change(router, -store.getPacketSize(slot), -1);
+    }
+
+    private boolean isFull(int router) {
+        return counts[router] >= routers.get(router).capacity();
+    }
+
+    /**
+     * Changes the waiting bytes and packets of a Router and moves it in the heap.
+     *
+     * @param router
+     * 		Position of the Router.
+     *
+     * @param bytes
+     * 		Change of the waiting bytes.
+     *
+     * @param packets
+     * 		Change of the waiting packets.
+     * */
+    private void change(int router, long bytes, int packets) {
+        work[router] += bytes;
+        counts[router] += packets;
+        if(bytes > 0 || packets > 0)
+            siftDown(heapIndex[router]);
+        else
+            siftUp(heapIndex[router]);
+    }
+
+    private boolean before(int a, int b) {
+        boolean fullA = isFull(a), fullB = isFull(b);
+        if(fullA != fullB)
+            return fullB;
+        if(work[a] != work[b])
+            return work[a] < work[b];
+        return a < b;
+    }
+
+    private void place(int router, int i) {
+        heap[i] = router;
+        heapIndex[router] = i;
+    }
+
+    private void siftUp(int i) {
+        int router = heap[i];
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!before(router, heap[parent]))
+                break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(router, i);
+    }
+
+    private void siftDown(int i) {
+        int router = heap[i], n = heap.length;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= n)
+                break;
+            if(child + 1 < n && before(heap[child + 1], heap[child]))
+                child++;
+            if(!before(heap[child], router))
+                break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(router, i);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        for(int router = 0; router < work.length; router++) {
+            out.writeLong(work[router]);
+            out.writeInt(counts[router]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        for(int router = 0; router < work.length; router++) {
+            work[router] = in.readLong();
+            counts[router] = in.readInt();
+            place(router, router);
+        }
+        for(int i = heap.length / 2 - 1; i >= 0; i--)
+            siftDown(i);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * The LoadBalancer interface decides which intermediate Router receives each packet sent by the
+ * dispatcher. The Simulator hands it every packet arriving in a simulation unit at once, then tells
+ * it about every packet added to or removed from a Router, for balancers that track more than the
+ * number of packets in each Router.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface LoadBalancer extends Checkpointable {
+
+    /**
+     * Chooses the Routers receiving the packets of the dispatcher. The caller then offers the packets,
+     * in order, to the chosen Routers.
+     *
+     * @param dispatcher
+     * 		Router holding the packets, in order of arrival.
+     *
+     * @param targets
+     * 		Receives the position of the Router chosen for each packet, or -1 if the packet is dropped.
+     * */
+    void assign(Router dispatcher, int[] targets);
+
+    /**
+     * Called after a packet is added to a Router.
+     *
+     * @param router
+     * 		Position of the Router.
+     *
+     * @param slot
+     * 		Slot of the packet.
+     * */
+    default void added(int router, int slot) {
+    }
+
+    /**
+     * Called after a packet is removed from a Router.
+     *
+     * @param router
+     * 		Position of the Router.
+     *
+     * @param slot
+     * 		Slot of the packet.
+     * */
+    default void removed(int router, int slot) {
+    }
+
+    @Override
+    default void writeState(DataOutput out) throws IOException {
+    }
+
+    @Override
+    default void readState(DataInput in) throws IOException {
+    }
+}
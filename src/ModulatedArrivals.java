@@ -0,0 +1,187 @@
+/**
+ * The ModulatedArrivals class is an open-loop ArrivalSource whose arrivals follow a Markov-modulated
+ * Poisson process: in every simulation unit spent in a state, the number of arriving packets is drawn
+ * from the Poisson distribution of that state's rate, and after the unit the process leaves the state
+ * with probability 1 / dwell, moving to one of the other states at random. One state is a Poisson
+ * process, and two states where one never sends packets are an on/off source.
+ *
+ * <p>The number of packets of a unit and whether the state changes after it are drawn together from
+ * one AliasTable per state, so a unit costs the same whatever the rate. When most units of a state
+ * are quiet, with no packets and no change of state, the quiet units are not drawn one by one: their
+ * number before the next busy unit is drawn from the geometric distribution, and the table holds the
+ * busy outcomes only. A unit never has more than maxPackets packets; the probability of more is given
+ * to maxPackets.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class ModulatedArrivals implements ArrivalSource, Checkpointable {
+
+    //share of quiet units from which they are skipped geometrically rather than drawn one by one
+    private static final double QUIET_SKIP = 0.75;
+
+    private final PacketSizes sizes;
+    private final RandomSource random;
+    //outcome 2 * packets + 1 when the state changes after the unit, 2 * packets otherwise
+    private final AliasTable[] outcomes;
+    //per state: 1 when the quiet outcome is left out of the table and skipped geometrically, 0 otherwise
+    private final int[] firstOutcome;
+    //per state: log of the probability of a quiet unit, when quiet units are skipped
+    private final double[] logQuiet;
+    private int state;
+    //simulation unit of the packets left to take, or Long.MAX_VALUE once no more packets arrive
+    private long time;
+    private int remaining;
+
+    /**
+     * Constructor creates a ModulatedArrivals starting in the first state. The first simulation unit is 1.
+     *
+     * @param maxPackets
+     * 		Maximum packets arriving in one simulation unit.
+     *
+     * @param rates
+     * 		Mean number of packets arriving in one simulation unit, for each state.
+     *
+     * @param dwell
+     * 		Mean number of simulation units spent in each state before moving to another, at least 1.
+     * 		Ignored when there is one state.
+     *
+     * @param sizes
+     * 		Sizes of the arriving packets.
+     *
+     * @param random
+     * 		RandomSource deciding the arrivals and the packet sizes.
+     * */
+    public ModulatedArrivals(int maxPackets, double[] rates, double[] dwell, PacketSizes sizes, RandomSource random) {
+        this.sizes = sizes;
+        this.random = random;
+        int states = rates.length;
+        outcomes = new AliasTable[states];
+        firstOutcome = new int[states];
+        logQuiet = new double[states];
+        boolean sends = false;
+        for(int s = 0; s < states; s++) {
+            double rate = (maxPackets > 0) ? rates[s] : 0, change = (states > 1) ? 1 / dwell[s] : 0;
+            double[] packets = poisson(rate, maxPackets);
+            //a quiet unit has no packets and is followed by the same state
+            double quiet = packets[0] * (1 - change);
+            sends |= rate > 0;
+            if(quiet == 1) {
+                //nothing ever happens in this state
+                logQuiet[s] = 0;
+                firstOutcome[s] = 1;
+                continue;
+            }
+            firstOutcome[s] = (quiet >= QUIET_SKIP) ? 1 : 0;
+            logQuiet[s] = Math.log(quiet);
+            double[] weights = new double[2 * packets.length - firstOutcome[s]];
+            for(int i = firstOutcome[s]; i < 2 * packets.length; i++)
+                weights[i - firstOutcome[s]] = packets[i >> 1] * (((i & 1) == 0) ? 1 - change : change);
+            outcomes[s] = new AliasTable(weights);
+        }
+        if(!sends)
+            time = Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the probabilities of 0 to n packets under the Poisson distribution of the given rate, where
+     * n is maxPackets or the point beyond which the remaining probability is negligible, and n takes the
+     * probability of every larger number.
+     *
+     * @param rate
+     * 		Mean number of packets.
+     *
+     * @param maxPackets
+     * 		Largest number of packets.
+     *
+     * @return
+     * 		Probabilities of 0 to n packets.
+     * */
+    private static double[] poisson(double rate, int maxPackets) {
+        int n = (rate > 0) ? (int) Math.min(maxPackets, Math.ceil(rate + 12 * Math.sqrt(rate) + 20)) : 0;
+        double[] probs = new double[n + 1];
+        double logRate = Math.log(rate), logProb = -rate, total = 0;
+        for(int k = 0; k < n; k++) {
+            if(k > 0)
+                logProb += logRate - Math.log(k);
+            probs[k] = Math.exp(logProb);
+            total += probs[k];
+        }
+        probs[n] = Math.max(0, 1 - total);
+        return probs;
+    }
+
+    /**
+     * Finds the next simulation unit with packets, following the changes of state on the way.
+     * */
+    private void advance() {
+        while(true) {
+            if(logQuiet[state] == 0) {
+                //nothing arrives and the state never changes
+                time = Long.MAX_VALUE;
+                return;
+            }
+            long quiet = (firstOutcome[state] == 0) ? 0 : random.nextGeometric(logQuiet[state]);
+            if(quiet >= Integer.MAX_VALUE - time) {
+                time = Long.MAX_VALUE;
+                return;
+            }
+            time += quiet + 1;
+            int outcome = outcomes[state].sample(random) + firstOutcome[state];
+            if((outcome & 1) != 0)
+                state = nextState();
+            remaining = outcome >> 1;
+            if(remaining > 0)
+                return;
+        }
+    }
+
+    /**
+     * Draws the state following the current one, among the other states.
+     *
+     * @return
+     * 		Next state.
+     * */
+    private int nextState() {
+        int states = outcomes.length;
+        if(states == 1)
+            return state;
+        int next = random.nextInt(0, states - 2);
+        return (next >= state) ? next + 1 : next;
+    }
+
+    @Override
+    public int nextTime() {
+        if(remaining == 0 && time != Long.MAX_VALUE)
+            advance();
+        return (time == Long.MAX_VALUE) ? Integer.MAX_VALUE : (int) time;
+    }
+
+    @Override
+    public int take() {
+        nextTime();
+        remaining--;
+        return sizes.sample(random);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(state);
+        out.writeLong(time);
+        out.writeInt(remaining);
+        random.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        state = in.readInt();
+        time = in.readLong();
+        remaining = in.readInt();
+        if(state < 0 || state >= outcomes.length || remaining < 0)
+            throw new IOException("Invalid arrival state in checkpoint: " + state + ".");
+        random.readState(in);
+    }
+}
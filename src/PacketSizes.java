@@ -0,0 +1,139 @@
+/**
+ * The PacketSizes class draws the sizes of arriving packets from [minPacketSize, maxPacketSize]: uniformly,
+ * as in the original simulator, or from a heavy-tailed Pareto or lognormal distribution cut off at both
+ * ends. The heavy-tailed distributions keep a table of their quantiles, computed once, so drawing a size
+ * is one table lookup between two neighbouring quantiles instead of a power, logarithm or inverse normal.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.function.DoubleUnaryOperator;
+
+public class PacketSizes {
+
+    //number of intervals between the quantiles of the table
+    static final int TABLE_BITS = 12, TABLE_INTERVALS = 1 << TABLE_BITS;
+    private static final long WITHIN_MASK = (1L << (64 - TABLE_BITS)) - 1;
+    private static final double WITHIN_SCALE = 1.0 / (1L << (64 - TABLE_BITS));
+
+    private final int minPacketSize, maxPacketSize;
+    //quantiles at 0, 1/TABLE_INTERVALS, ..., 1, or null for uniform sizes; floats keep the table in 16 KB
+    private final float[] quantiles;
+
+    private PacketSizes(int minPacketSize, int maxPacketSize, DoubleUnaryOperator inverseCdf) {
+        this.minPacketSize = minPacketSize;
+        this.maxPacketSize = maxPacketSize;
+        if(inverseCdf == null || minPacketSize == maxPacketSize) {
+            quantiles = null;
+            return;
+        }
+        quantiles = new float[TABLE_INTERVALS + 1];
+        for(int i = 0; i <= TABLE_INTERVALS; i++)
+            quantiles[i] = (float) Math.max(minPacketSize, Math.min(maxPacketSize,
+                    inverseCdf.applyAsDouble((double) i / TABLE_INTERVALS)));
+        quantiles[0] = minPacketSize;
+        quantiles[TABLE_INTERVALS] = maxPacketSize;
+    }
+
+    /**
+     * Returns PacketSizes drawn uniformly from [minPacketSize, maxPacketSize].
+     *
+     * @param minPacketSize
+     * 		Minimum packet size.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @return
+     * 		Uniform PacketSizes.
+     * */
+    public static PacketSizes uniform(int minPacketSize, int maxPacketSize) {
+        return new PacketSizes(minPacketSize, maxPacketSize, null);
+    }
+
+    /**
+     * Returns PacketSizes following a Pareto distribution starting at minPacketSize, cut off at maxPacketSize.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size, the scale of the distribution; at least 1.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param shape
+     * 		Shape of the distribution; the smaller, the heavier the tail.
+     *
+     * @return
+     * 		Pareto PacketSizes.
+     * */
+    public static PacketSizes pareto(int minPacketSize, int maxPacketSize, double shape) {
+        //share of the untruncated distribution below maxPacketSize
+        double below = 1 - Math.pow((double) minPacketSize / maxPacketSize, shape);
+        return new PacketSizes(minPacketSize, maxPacketSize,
+                u -> minPacketSize * Math.pow(1 - u * below, -1 / shape));
+    }
+
+    /**
+     * Returns PacketSizes following a lognormal distribution whose median is the geometric mean of
+     * minPacketSize and maxPacketSize, cut off at both.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size, at least 1.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param sigma
+     * 		Standard deviation of the logarithm of the size.
+     *
+     * @return
+     * 		Lognormal PacketSizes.
+     * */
+    public static PacketSizes lognormal(int minPacketSize, int maxPacketSize, double sigma) {
+        double mu = (Math.log(minPacketSize) + Math.log(maxPacketSize)) / 2;
+        double low = normalCdf((Math.log(minPacketSize) - mu) / sigma);
+        double high = normalCdf((Math.log(maxPacketSize) - mu) / sigma);
+        return new PacketSizes(minPacketSize, maxPacketSize, u -> {
+            double p = low + u * (high - low);
+            if(p <= 0 || p >= 1)
+                return (p <= 0) ? minPacketSize : maxPacketSize;
+            return Math.exp(mu + sigma * RunningStatistics.normalQuantile(p));
+        });
+    }
+
+    /**
+     * Returns the cumulative distribution function of the standard normal distribution, with a relative
+     * error below 1.2e-7 (the Chebyshev fit of erfc from Numerical Recipes).
+     *
+     * @param x
+     * 		Value.
+     *
+     * @return
+     * 		Probability that a standard normal variable is at most x.
+     * */
+    static double normalCdf(double x) {
+        double z = Math.abs(x) / Math.sqrt(2), t = 1 / (1 + z / 2);
+        double erfc = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+                t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+                t * (-0.82215223 + t * 0.17087277)))))))));
+        return (x >= 0) ? 1 - erfc / 2 : erfc / 2;
+    }
+
+    /**
+     * Draws the size of a packet.
+     *
+     * @param random
+     * 		RandomSource drawing the size.
+     *
+     * @return
+     * 		Size in the range [minPacketSize, maxPacketSize].
+     * */
+    public int sample(RandomSource random) {
+        if(quantiles == null)
+            return random.nextInt(minPacketSize, maxPacketSize);
+        //the top bits of one random long pick the interval, the rest the position within it
+        long bits = random.nextLong();
+        int i = (int) (bits >>> (64 - TABLE_BITS));
+        double within = (bits & WITHIN_MASK) * WITHIN_SCALE;
+        return (int) (quantiles[i] + (quantiles[i + 1] - quantiles[i]) * within + 0.5);
+    }
+}
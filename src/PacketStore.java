@@ -0,0 +1,258 @@
+/**
+ * The PacketStore class keeps the information of many packets in parallel int arrays instead
+ * of one Packet object per packet. Each packet lives in a slot, which is an index into the arrays.
+ * Released slots are reused by later packets, so a running simulation stops allocating memory
+ * once the store is large enough for every packet in flight.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.Arrays;
+
+public class PacketStore {
+
+    private int[] ids, packetSizes, timesArrived, timesToDest;
+    //destination of each packet in a Topology, 0 when the network has a single destination
+    private int[] destinations;
+    //stack of slots that are not holding a packet
+    private int[] freeSlots;
+    private int freeCount;
+
+    /**
+     * Constructor creates an empty PacketStore with room for the given number of packets.
+     * The store grows when more packets are added.
+     *
+     * @param capacity
+     * 		Number of packets the store can hold before it grows.
+     * */
+    public PacketStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new int[capacity];
+        packetSizes = new int[capacity];
+        timesArrived = new int[capacity];
+        timesToDest = new int[capacity];
+        destinations = new int[capacity];
+        freeSlots = new int[capacity];
+        pushFreeSlots(0, capacity);
+    }
+
+    /**
+     * Marks the slots in the range [from, to) as free, so that the lowest slot is used first.
+     *
+     * @param from
+     * 		First slot of the range.
+     *
+     * @param to
+     * 		Slot after the last slot of the range.
+     * */
+    private void pushFreeSlots(int from, int to) {
+        for(int slot = to - 1; slot >= from; slot--)
+            freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Doubles the number of packets the store can hold.
+     * */
+    private void grow() {
+        int oldCapacity = ids.length, newCapacity = oldCapacity * 2;
+        ids = Arrays.copyOf(ids, newCapacity);
+        packetSizes = Arrays.copyOf(packetSizes, newCapacity);
+        timesArrived = Arrays.copyOf(timesArrived, newCapacity);
+        timesToDest = Arrays.copyOf(timesToDest, newCapacity);
+        destinations = Arrays.copyOf(destinations, newCapacity);
+        freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+        pushFreeSlots(oldCapacity, newCapacity);
+    }
+
+    /**
+     * Stores a packet in a free slot.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param packetSize
+     * 		The size of the packet.
+     *
+     * @param timeArrived
+     * 		The time when the packet arrives at dispatcher.
+     *
+     * @param timeToDest
+     * 		The time it takes the packet to reach destination.
+     *
+     * @return
+     * 		Slot holding the packet.
+     * */
+    public int allocate(int id, int packetSize, int timeArrived, int timeToDest) {
+        if(freeCount == 0)
+            grow();
+
+        int slot = freeSlots[--freeCount];
+        ids[slot] = id;
+        packetSizes[slot] = packetSize;
+        timesArrived[slot] = timeArrived;
+        timesToDest[slot] = timeToDest;
+        destinations[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Stores a copy of the given packet in a free slot.
+     *
+     * @param p
+     * 		Packet being stored.
+     *
+     * @return
+     * 		Slot holding the packet.
+     * */
+    public int allocate(Packet p) {
+        return allocate(p.getId(), p.getPacketSize(), p.getTimeArrived(), p.getTimeToDest());
+    }
+
+    /**
+     * Frees a slot so that it can hold another packet.
+     *
+     * @param slot
+     * 		Slot being freed.
+     * */
+    public void release(int slot) {
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Returns the number of slots that are holding a packet.
+     *
+     * @return
+     * 		Number of packets in the store.
+     * */
+    public int size() {
+        return ids.length - freeCount;
+    }
+
+    /**
+     * Returns the number of packets the store can hold before it grows.
+     *
+     * @return
+     * 		Number of slots in the store.
+     * */
+    public int capacity() {
+        return ids.length;
+    }
+
+    /**
+     * Accessor. Returns the ID of the packet in the given slot.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		ID of the packet.
+     * */
+    public int getId(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Accessor. Returns the size of the packet in the given slot.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		Size of the packet.
+     * */
+    public int getPacketSize(int slot) {
+        return packetSizes[slot];
+    }
+
+    /**
+     * Accessor. Returns the time when the packet in the given slot arrived at dispatcher.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		Time when the packet arrived at dispatcher.
+     * */
+    public int getTimeArrived(int slot) {
+        return timesArrived[slot];
+    }
+
+    /**
+     * Accessor. Returns the time it takes the packet in the given slot to reach destination.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		Time it takes the packet to reach destination.
+     * */
+    public int getTimeToDest(int slot) {
+        return timesToDest[slot];
+    }
+
+    /**
+     * Modifier. Modifies the time it takes the packet in the given slot to reach destination.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @param timeToDest
+     * 		Time it takes the packet to reach destination.
+     * */
+    public void setTimeToDest(int slot, int timeToDest) {
+        timesToDest[slot] = timeToDest;
+    }
+
+    /**
+     * Returns the destination of the packet in the given slot.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		Position of the destination in the Topology.
+     * */
+    public int getDestination(int slot) {
+        return destinations[slot];
+    }
+
+    /**
+     * Modifier. Modifies the destination of the packet in the given slot.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @param destination
+     * 		Position of the destination in the Topology.
+     * */
+    public void setDestination(int slot, int destination) {
+        destinations[slot] = destination;
+    }
+
+    /**
+     * Creates a Packet object holding a copy of the packet in the given slot.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		Copy of the packet.
+     * */
+    public Packet toPacket(int slot) {
+        Packet p = new Packet(packetSizes[slot], timesArrived[slot], timesToDest[slot]);
+        p.setId(ids[slot]);
+        return p;
+    }
+
+    /**
+     * Returns the string representation of the packet in the given slot, in the same format as Packet.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @return
+     * 		String representation of the packet.
+     * */
+    public String toString(int slot) {
+        return "[" + ids[slot] + ", " + timesArrived[slot] + ", " + timesToDest[slot] + "]";
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The PowerOfChoicesBalancer class is a LoadBalancer that samples a few Routers at random for each
+ * packet and sends it to the one holding the fewest packets (power of d choices). It needs no global
+ * view of the Routers and takes O(d) time per packet whatever the number of Routers, yet keeps the
+ * queues almost as even as joining the shortest queue.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+public class PowerOfChoicesBalancer implements LoadBalancer {
+
+    private final List<Router> routers;
+    private final int choices;
+    private final RandomSource random;
+    //packets given to each Router in the current batch, which are not in it yet
+    private final int[] pending;
+
+    /**
+     * Constructor creates a PowerOfChoicesBalancer.
+     *
+     * @param routers
+     * 		Intermediate Routers.
+     *
+     * @param choices
+     * 		Number of Routers sampled for each packet.
+     *
+     * @param random
+     * 		RandomSource choosing the samples.
+     * */
+    public PowerOfChoicesBalancer(List<Router> routers, int choices, RandomSource random) {
+        this.routers = routers;
+        this.choices = Math.max(choices, 1);
+        this.random = random;
+        pending = new int[routers.size()];
+    }
+
+    @Override
+    public void assign(Router dispatcher, int[] targets) {
+        int packets = dispatcher.size(), last = routers.size() - 1;
+        for(int i = 0; i < packets; i++) {
+            int best = -1, bestSize = Integer.MAX_VALUE;
+            for(int d = 0; d < choices && last >= 0; d++) {
+                int candidate = random.nextInt(0, last), size = routers.get(candidate).size() + pending[candidate];
+                if(size < bestSize && size < routers.get(candidate).capacity()) {
+                    best = candidate;
+                    bestSize = size;
+                }
+            }
+            targets[i] = best;
+            if(best != -1)
+                pending[best]++;
+        }
+        for(int i = 0; i < packets; i++)
+            if(targets[i] != -1)
+                pending[targets[i]] = 0;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        random.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        random.readState(in);
+    }
+}
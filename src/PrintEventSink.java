@@ -0,0 +1,146 @@
+/**
+ * The PrintEventSink class writes the events of a Simulator as text through a large buffer.
+ * Events above the chosen level are discarded before any message is built.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+public class PrintEventSink implements EventSink {
+
+    //size of the output buffer in characters
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private final PrintWriter out;
+    private final EventLevel level;
+
+    /**
+     * Constructor creates a PrintEventSink that writes to the given stream.
+     *
+     * @param out
+     * 		Stream the events are written to.
+     *
+     * @param level
+     * 		Highest level of events that are written.
+     * */
+    public PrintEventSink(OutputStream out, EventLevel level) {
+        this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE), false);
+        this.level = level;
+    }
+
+    /**
+     * Accessor. Returns the highest level of events that are written.
+     *
+     * @return
+     * 		Highest level of events that are written.
+     * */
+    public EventLevel getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean isEnabled(EventLevel level) {
+        return this.level.includes(level);
+    }
+
+    @Override
+    public void tickStarted(int time) {
+        if(isEnabled(EventLevel.TICK))
+            out.println("\nTime: " + time);
+    }
+
+    @Override
+    public void packetArrived(int id, int size) {
+        if(isEnabled(EventLevel.PACKET))
+            out.println("Packet " + id + " arrives at dispatcher with size " + size + ".");
+    }
+
+    @Override
+    public void noPacketsArrived() {
+        if(isEnabled(EventLevel.PACKET))
+            out.println("No packets arrived.");
+    }
+
+    @Override
+    public void packetSent(int id, int router) {
+        if(isEnabled(EventLevel.PACKET))
+            out.println("Packet " + id + " sent to Router " + router + ".");
+    }
+
+    @Override
+    public void packetDropped(int id) {
+        if(isEnabled(EventLevel.PACKET))
+            out.println("Network is congested. Packet " + id + " is dropped.");
+    }
+
+    @Override
+    public void packetDelivered(int id, int serviceTime) {
+        if(isEnabled(EventLevel.PACKET))
+            out.println("Packet " + id + " has successfully reached its destination: +" + serviceTime);
+    }
+
+    @Override
+    public void routerState(int router, Router queue) {
+        if(isEnabled(EventLevel.TICK))
+            out.println("R" + router + ": " + queue);
+    }
+
+    @Override
+    public void noPacketsDelivered() {
+        if(isEnabled(EventLevel.SUMMARY))
+            out.println("\nNo packets have arrived at destination during the simulation.");
+    }
+
+    @Override
+    public void summary(long totalServiceTime, long packetsServed, double averageServiceTime, long packetsDropped) {
+        if(!isEnabled(EventLevel.SUMMARY))
+            return;
+        out.println("\n\nSimulation ending...");
+        out.println("Total service time: " + totalServiceTime);
+        out.println("Total packets served: " + packetsServed);
+        out.println("Average service time per packet: " + averageServiceTime);
+        out.println("Total packets dropped: " + packetsDropped);
+    }
+
+    @Override
+    public void serviceTimes(LatencyHistogram serviceTimes) {
+        if(!isEnabled(EventLevel.SUMMARY) || serviceTimes.getTotalCount() == 0)
+            return;
+        out.println("Service time p50: " + serviceTimes.getValueAtPercentile(50)
+                + ", p99: " + serviceTimes.getValueAtPercentile(99)
+                + ", p99.9: " + serviceTimes.getValueAtPercentile(99.9)
+                + ", max: " + serviceTimes.getMax());
+    }
+
+    @Override
+    public void steadyState(int warmupEnd, long steadyTicks, double averageServiceTime, double dropRate,
+                            double queueDepth) {
+        if(!isEnabled(EventLevel.SUMMARY))
+            return;
+        out.println("Warm-up ended at simulation unit " + warmupEnd + ", " + steadyTicks + " steady-state units measured");
+        out.println("Steady-state average service time: " + averageServiceTime);
+        out.println("Steady-state drop rate: " + dropRate);
+        out.println("Steady-state average queue depth: " + queueDepth);
+    }
+
+    @Override
+    public void noSteadyState() {
+        if(isEnabled(EventLevel.SUMMARY))
+            out.println("The warm-up did not end during the simulation; the statistics include it.");
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     * */
+    public void close() {
+        out.close();
+    }
+}
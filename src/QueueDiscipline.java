@@ -0,0 +1,96 @@
+/**
+ * The QueueDiscipline interface decides the order in which a Router sends its packets and, optionally,
+ * which arriving packets it refuses before it is full. A Router delegates its queue to one
+ * QueueDiscipline, which holds the slots of the packets in a PacketStore.
+ *
+ * <p>Disciplines with scheduling state besides the slots, such as deficit counters or an average queue
+ * length, save it through {@link Checkpointable}; the slots themselves are saved by the Simulator and
+ * added back with {@link #add(int)} in the order of {@link #get(int)} before that state is restored.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface QueueDiscipline extends Checkpointable {
+
+    /**
+     * Returns the maximum number of packets in the queue.
+     *
+     * @return
+     * 		Capacity of the queue.
+     * */
+    int capacity();
+
+    /**
+     * Returns the number of packets in the queue.
+     *
+     * @return
+     * 		Number of packets in the queue.
+     * */
+    int size();
+
+    /**
+     * Decides if an arriving packet is accepted. Only called when the queue is not full; the default
+     * accepts every packet, so packets are only dropped when the queue is full (tail drop).
+     *
+     * @param slot
+     * 		Slot of the arriving packet.
+     *
+     * @return
+     * 		true if the packet may be added, false if it must be dropped.
+     * */
+    default boolean admit(int slot) {
+        return true;
+    }
+
+    /**
+     * Adds a packet. Only called when the queue is not full.
+     *
+     * @param slot
+     * 		Slot of the packet.
+     * */
+    void add(int slot);
+
+    /**
+     * Returns the packet that would be sent next, without removing it.
+     *
+     * @return
+     * 		Slot of the next packet, or -1 if the queue is empty.
+     * */
+    int peek();
+
+    /**
+     * Removes the packet that would be sent next.
+     *
+     * @return
+     * 		Slot of the removed packet, or -1 if the queue is empty.
+     * */
+    int poll();
+
+    /**
+     * Returns a packet of the queue. Positions cover every packet once; only a FIFO queue keeps them in
+     * the order the packets are sent.
+     *
+     * @param i
+     * 		Position in the range [0, size()).
+     *
+     * @return
+     * 		Slot of the packet at the position.
+     * */
+    int get(int i);
+
+    /**
+     * Removes every packet. The slots of the packets stay in use.
+     * */
+    void clear();
+
+    @Override
+    default void writeState(DataOutput out) throws IOException {
+    }
+
+    @Override
+    default void readState(DataInput in) throws IOException {
+    }
+}
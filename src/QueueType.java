@@ -0,0 +1,94 @@
+/**
+ * The QueueType enum lists the QueueDisciplines an intermediate Router can use, selected per run.
+ * Packets are sorted into classes by size for the priority and wfq disciplines: the smallest packets
+ * form class 0, which the priority discipline always sends first.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.function.IntUnaryOperator;
+
+public enum QueueType {
+    //first in, first out, dropping packets only when full (tail drop)
+    FIFO,
+    //strict priority between size classes, first in, first out within a class
+    PRIORITY,
+    //shortest packet first
+    SPF,
+    //equal share of bytes for every size class, by deficit round robin
+    WFQ,
+    //first in, first out with random early detection
+    RED;
+
+    //RED thresholds as fractions of the capacity, drop probability at the high threshold, and average weight
+    private static final double RED_MIN = 0.25, RED_MAX = 0.75, RED_PROBABILITY = 0.1, RED_WEIGHT = 0.2;
+
+    /**
+     * Returns the QueueType with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the discipline, "fifo", "priority", "spf", "wfq" or "red".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any discipline.
+     *
+     * @return
+     * 		QueueType with the given name.
+     * */
+    public static QueueType parse(String name) throws IllegalArgumentException {
+        for(QueueType type : values())
+            if(type.name().equalsIgnoreCase(name.trim()))
+                return type;
+
+        throw new IllegalArgumentException("Invalid queue: " + name + ". Please enter fifo, priority, spf, wfq or red.");
+    }
+
+    /**
+     * Determines if packets always leave in order of arrival, so that the front packet only changes when
+     * it is sent.
+     *
+     * @return
+     * 		true for fifo and red, false otherwise.
+     * */
+    public boolean isFifo() {
+        return this == FIFO || this == RED;
+    }
+
+    /**
+     * Creates an empty QueueDiscipline of this type for one Router.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the queue.
+     *
+     * @param store
+     * 		PacketStore holding the packets.
+     *
+     * @param config
+     * 		Settings of the simulation, giving the packet sizes and the number of size classes.
+     *
+     * @param random
+     * 		RandomSource of this Router, used by red.
+     *
+     * @return
+     * 		New QueueDiscipline.
+     * */
+    public QueueDiscipline create(int capacity, PacketStore store, SimulationConfig config, RandomSource random) {
+        int classes = config.getQueueClasses(), minSize = config.getMinPacketSize();
+        long range = (long) config.getMaxPacketSize() - minSize + 1;
+        IntUnaryOperator classOfSize = size ->
+                (int) Math.max(0, Math.min(classes - 1, (size - minSize) * (long) classes / range));
+
+        switch(this) {
+            case PRIORITY:
+                return new HeapQueue(capacity, store, classOfSize);
+            case SPF:
+                return new HeapQueue(capacity, store, size -> size);
+            case WFQ:
+                return new DeficitRoundRobinQueue(capacity, store, classes, classOfSize, config.getMaxPacketSize());
+            case RED:
+                return new RedQueue(capacity, RED_MIN * capacity, RED_MAX * capacity, RED_PROBABILITY, RED_WEIGHT,
+                        random);
+            default:
+                return new FifoQueue(capacity);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * The RandomSource class is a seeded, splittable random number generator (the SplitMix64 algorithm,
+ * the same one behind java.util.SplittableRandom). Unlike Math.random(), each Simulator owns its own
+ * RandomSource, so simulations running at the same time do not share or lock a generator, and two
+ * simulations created with the same seed produce the same results.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class RandomSource implements Checkpointable {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+    private long gamma;
+
+    /**
+     * Constructor creates a RandomSource whose seed is taken from the system clock.
+     * */
+    public RandomSource() {
+        this(mix64(System.nanoTime()) ^ mix64(Thread.currentThread().getId()));
+    }
+
+    /**
+     * Constructor creates a RandomSource with the given seed.
+     *
+     * @param seed
+     * 		Seed of the generator.
+     * */
+    public RandomSource(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private RandomSource(long state, long gamma) {
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        //gammas with too few bit changes make poor streams
+        return (Long.bitCount(z ^ (z >>> 1)) < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    /**
+     * Returns a new RandomSource whose numbers are independent of this one's.
+     * Splitting the same RandomSource in the same order always gives the same RandomSources.
+     *
+     * @return
+     * 		A new RandomSource.
+     * */
+    public RandomSource split() {
+        return new RandomSource(mix64(nextLong()), mixGamma(nextLong()));
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(state);
+        out.writeLong(gamma);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        state = in.readLong();
+        gamma = in.readLong();
+    }
+
+    /**
+     * Returns the next random long.
+     *
+     * @return
+     * 		Random long.
+     * */
+    public long nextLong() {
+        return mix64(state += gamma);
+    }
+
+    /**
+     * Returns the next random number in the range [0, 1).
+     *
+     * @return
+     * 		Random double between 0 and 1.
+     * */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a random number in the range [minVal, maxVal].
+     *
+     * @param minVal
+     * 		the smallest possible integer that can be generated
+     *
+     * @param maxVal
+     * 		the largest possible integer that can be generated
+     *
+     * @return
+     * 		random integer between minVal and maxVal, inclusively
+     * */
+    public int nextInt(int minVal, int maxVal) {
+        long bound = (long) maxVal - minVal + 1;
+        return (int) (minVal + (((nextLong() >>> 32) * bound) >>> 32));
+    }
+
+    /**
+     * Returns true with the given probability.
+     *
+     * @param prob
+     * 		Probability of returning true.
+     *
+     * @return
+     * 		true with probability prob, false otherwise.
+     * */
+    public boolean nextBoolean(double prob) {
+        return nextDouble() < prob;
+    }
+
+    /**
+     * Returns the number of failed trials before the first success in a sequence of independent trials,
+     * which replaces drawing each of those trials one by one.
+     *
+     * @param logFailure
+     * 		Natural logarithm of the probability that a trial fails, which must be negative.
+     *
+     * @return
+     * 		Number of failed trials before the first success, capped at Long.MAX_VALUE.
+     * */
+    public long nextGeometric(double logFailure) {
+        double failures = Math.log(1 - nextDouble()) / logFailure;
+        return failures < Long.MAX_VALUE ? (long) failures : Long.MAX_VALUE;
+    }
+}
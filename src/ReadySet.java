@@ -0,0 +1,135 @@
+/**
+ * The ReadySet class keeps the positions of the Routers whose front packet is ready to be sent
+ * to the destination. Positions come out in increasing order, which is the order the Routers were
+ * served in when every Router was scanned, so the lowest numbered ready Router is always served first.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class ReadySet implements Checkpointable {
+
+    //min-heap of router positions and whether each position is in the heap
+    private final int[] heap;
+    private final boolean[] contains;
+    private int size;
+
+    /**
+     * Constructor creates an empty ReadySet for the given number of Routers.
+     *
+     * @param numRouters
+     * 		Number of Routers whose positions can be added.
+     * */
+    public ReadySet(int numRouters) {
+        heap = new int[numRouters];
+        contains = new boolean[numRouters];
+    }
+
+    /**
+     * Returns the number of ready Routers.
+     *
+     * @return
+     * 		Number of ready Routers.
+     * */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if no Router is ready.
+     *
+     * @return
+     * 		true if no Router is ready, false otherwise.
+     * */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Determines if the Router at the given position is ready.
+     *
+     * @param router
+     * 		Position of the Router.
+     *
+     * @return
+     * 		true if the Router is ready, false otherwise.
+     * */
+    public boolean contains(int router) {
+        return contains[router];
+    }
+
+    /**
+     * Marks the Router at the given position as ready. Adding a Router that is already ready does nothing.
+     *
+     * @param router
+     * 		Position of the Router.
+     * */
+    public void add(int router) {
+        if(contains[router])
+            return;
+        contains[router] = true;
+
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(heap[parent] < router)
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = router;
+    }
+
+    /**
+     * Removes and returns the lowest position among the ready Routers.
+     *
+     * @return
+     * 		Position of the first ready Router, or -1 if no Router is ready.
+     * */
+    public int poll() {
+        if(size == 0)
+            return -1;
+
+        int first = heap[0], last = heap[--size], i = 0;
+        contains[first] = false;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if(last < heap[child])
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        if(size > 0)
+            heap[i] = last;
+        return first;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for(int i = 0; i < size; i++)
+            out.writeInt(heap[i]);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        clear();
+        int count = in.readInt();
+        for(int i = 0; i < count; i++)
+            add(in.readInt());
+    }
+
+    /**
+     * Marks every Router as not ready.
+     * */
+    public void clear() {
+        while(size > 0)
+            contains[heap[--size]] = false;
+    }
+}
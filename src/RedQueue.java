@@ -0,0 +1,100 @@
+/**
+ * The RedQueue class is a FIFO QueueDiscipline with random early detection: it keeps a moving average
+ * of its length and, between a low and a high threshold, refuses arriving packets with a probability
+ * that grows with the average, so that senders see congestion before the queue is full. Above the
+ * high threshold every arriving packet is refused.
+ *
+ * <p>The average is updated when a packet arrives. The drop probability is spread out by counting the
+ * packets accepted since the last early drop, as in the original RED algorithm.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class RedQueue extends FifoQueue {
+
+    private final double minThreshold, maxThreshold, maxProbability, weight;
+    private final RandomSource random;
+    private double average;
+    //packets accepted since the last early drop while the average was between the thresholds
+    private int count;
+
+    /**
+     * Constructor creates an empty RedQueue.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the queue.
+     *
+     * @param minThreshold
+     * 		Average length below which every packet is accepted.
+     *
+     * @param maxThreshold
+     * 		Average length from which every packet is refused.
+     *
+     * @param maxProbability
+     * 		Drop probability when the average reaches maxThreshold.
+     *
+     * @param weight
+     * 		Weight of the current length in the moving average, in the range (0, 1].
+     *
+     * @param random
+     * 		RandomSource deciding the early drops.
+     * */
+    public RedQueue(int capacity, double minThreshold, double maxThreshold, double maxProbability, double weight,
+                    RandomSource random) {
+        super(capacity);
+        this.minThreshold = minThreshold;
+        this.maxThreshold = maxThreshold;
+        this.maxProbability = maxProbability;
+        this.weight = weight;
+        this.random = random;
+    }
+
+    @Override
+    public boolean admit(int slot) {
+        average += weight * (size() - average);
+        if(average < minThreshold) {
+            count = 0;
+            return true;
+        }
+        if(average >= maxThreshold) {
+            count = 0;
+            return false;
+        }
+
+        double probability = maxProbability * (average - minThreshold) / (maxThreshold - minThreshold);
+        double spread = 1 - count * probability;
+        if(spread <= 0 || random.nextDouble() < probability / spread) {
+            count = 0;
+            return false;
+        }
+        count++;
+        return true;
+    }
+
+    /**
+     * Returns the moving average of the queue length.
+     *
+     * @return
+     * 		Average queue length.
+     * */
+    public double getAverage() {
+        return average;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(average);
+        out.writeInt(count);
+        random.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        average = in.readDouble();
+        count = in.readInt();
+        random.readState(in);
+    }
+}
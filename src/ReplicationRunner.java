@@ -0,0 +1,299 @@
+/**
+ * The ReplicationRunner class runs independently seeded copies of one configuration in parallel and
+ * combines them into confidence intervals for the average service time and the drop rate. Each
+ * replication gives one value of each, so the intervals come from independent samples, unlike the
+ * values within a single run.
+ *
+ * <p>Replications are taken in order and their results are added in that order, whichever thread
+ * finishes first. After every added replication, once minReplications are in, the runner checks both
+ * intervals and stops when the service time is within the target relative precision and the drop
+ * rate within the target absolute precision. The drop rate is held to an absolute bound because at
+ * a low drop rate a relative one is rarely reached: the mean is small and one drop more or less in
+ * a replication moves it by a large fraction. The same seed therefore always stops at the same replication with the same results, and replications
+ * started past that point are discarded.
+ *
+ * <p>Keys: those of BatchSimulator for the simulation, and replications (most replications, 1000 by
+ * default), minReplications (5 by default), precision (target relative half width of the service time,
+ * 0.01 by default, 0 to always run every replication), dropPrecision (target half width of the drop
+ * rate, 0.001 by default), confidence (0.95 by default), seed (seed of the replications) and
+ * threads (all cores by default).
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicationRunner {
+
+    private final SimulationConfig settings;
+    private final long[] seeds;
+    private final int minReplications;
+    private final double precision, dropPrecision, confidence;
+    //next replication to start, and the first replication not needed any more
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile int stopAt;
+
+    //results of the finished replications, added to the statistics in order
+    private final double[] serviceTimes, dropRates;
+    private final boolean[] finished;
+    private int added;
+    private final RunningStatistics serviceTime = new RunningStatistics(), dropRate = new RunningStatistics();
+    private volatile RuntimeException failure;
+
+    /**
+     * Constructor creates a ReplicationRunner.
+     *
+     * @param settings
+     * 		Settings of the simulation; the seed is replaced in each replication.
+     *
+     * @param seed
+     * 		Seed from which the seeds of the replications are drawn.
+     *
+     * @param replications
+     * 		Largest number of replications.
+     *
+     * @param minReplications
+     * 		Number of replications run before the precision is checked.
+     *
+     * @param precision
+     * 		Relative half width of the service time interval at which the replications stop, or 0 to run
+     * 		all of them.
+     *
+     * @param dropPrecision
+     * 		Half width of the drop rate interval at which the replications stop.
+     *
+     * @param confidence
+     * 		Confidence level of the intervals.
+     *
+     * @throws IllegalArgumentException
+     * 		when a value is out of range.
+     * */
+    public ReplicationRunner(SimulationConfig settings, long seed, int replications, int minReplications,
+                             double precision, double dropPrecision, double confidence) throws IllegalArgumentException {
+        if(replications <= 0)
+            throw new IllegalArgumentException("Invalid value for replications: " + replications +
+                    ". Please enter a positive integer.");
+        if(minReplications < 2)
+            throw new IllegalArgumentException("Invalid value for minReplications: " + minReplications +
+                    ". Please enter at least 2.");
+        if(!(precision >= 0))
+            throw new IllegalArgumentException("Invalid value for precision: " + precision +
+                    ". Please enter a non-negative number.");
+        if(!(dropPrecision >= 0))
+            throw new IllegalArgumentException("Invalid value for dropPrecision: " + dropPrecision +
+                    ". Please enter a non-negative number.");
+        if(!(confidence > 0 && confidence < 1))
+            throw new IllegalArgumentException("Invalid value for confidence: " + confidence +
+                    ". Please enter a probability in range of (0,1).");
+        //a replication runs on one thread; the replications are the parallelism
+        this.settings = settings.toBuilder().shards(1).build();
+        this.minReplications = minReplications;
+        this.precision = precision;
+        this.dropPrecision = dropPrecision;
+        this.confidence = confidence;
+
+        RandomSource random = new RandomSource(seed);
+        seeds = new long[replications];
+        for(int i = 0; i < replications; i++)
+            seeds[i] = random.nextLong();
+        serviceTimes = new double[replications];
+        dropRates = new double[replications];
+        finished = new boolean[replications];
+        stopAt = replications;
+    }
+
+    /**
+     * Runs one replication.
+     *
+     * @param replication
+     * 		Position of the replication.
+     * */
+    private void run(int replication) throws EmptyBufferException {
+        Simulator simulator = new Simulator(settings.toBuilder().seed(seeds[replication]).build());
+        simulator.setEventSink(EventSink.NONE);
+        double average = simulator.simulate();
+        SimulationMetrics metrics = simulator.getMetrics();
+        WarmupDetector warmup = simulator.getWarmup();
+        long arrived = metrics.getPacketsArrived();
+        double drops = arrived == 0 ? 0 : (double) metrics.getPacketsDropped() / arrived;
+        //with warmup=true the average already leaves the warm-up out; the drop rate does the same
+        if(warmup != null && warmup.isWarmedUp())
+            drops = warmup.getSteadyDropRate();
+        finish(replication, average, drops);
+    }
+
+    /**
+     * Stores the results of a replication and adds every replication now complete in order, stopping
+     * when the intervals are precise enough.
+     *
+     * @param replication
+     * 		Position of the replication.
+     *
+     * @param average
+     * 		Average service time of the replication.
+     *
+     * @param drops
+     * 		Fraction of the arrived packets dropped in the replication.
+     * */
+    private synchronized void finish(int replication, double average, double drops) {
+        serviceTimes[replication] = average;
+        dropRates[replication] = drops;
+        finished[replication] = true;
+        while(added < stopAt && finished[added]) {
+            serviceTime.add(serviceTimes[added]);
+            dropRate.add(dropRates[added]);
+            added++;
+            if(added >= minReplications && precision > 0
+                    && serviceTime.getRelativeHalfWidth(confidence) <= precision
+                    && dropRate.getHalfWidth(confidence) <= dropPrecision)
+                stopAt = added;
+        }
+    }
+
+    /**
+     * Loop of a worker thread: runs replications until none is left or the precision is reached.
+     * */
+    private void work() {
+        try {
+            int replication;
+            while(failure == null && (replication = next.getAndIncrement()) < stopAt)
+                run(replication);
+        } catch(EmptyBufferException e) {
+            failure = new IllegalStateException(e);
+        } catch(RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Runs the replications on the given number of threads.
+     *
+     * @param threads
+     * 		Number of worker threads.
+     *
+     * @throws IllegalStateException
+     * 		when a replication fails.
+     * */
+    public void runAll(int threads) throws IllegalStateException {
+        Thread[] workers = new Thread[Math.min(threads, seeds.length) - 1];
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::work, "replication-" + (i + 1));
+            workers[i].start();
+        }
+        work();
+        for(Thread worker : workers) {
+            try {
+                worker.join();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the replications.", e);
+            }
+        }
+        if(failure != null)
+            throw failure;
+    }
+
+    /**
+     * Returns the number of replications in the results.
+     *
+     * @return
+     * 		Number of replications added.
+     * */
+    public synchronized int getReplications() {
+        return added;
+    }
+
+    /**
+     * Returns whether the replications stopped before the largest number because the precision was reached.
+     *
+     * @return
+     * 		true if the replications stopped early.
+     * */
+    public synchronized boolean stoppedEarly() {
+        return stopAt < seeds.length;
+    }
+
+    /**
+     * Returns the statistics of the average service time over the replications.
+     *
+     * @return
+     * 		RunningStatistics of the average service time.
+     * */
+    public synchronized RunningStatistics getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Returns the statistics of the drop rate over the replications.
+     *
+     * @return
+     * 		RunningStatistics of the fraction of packets dropped.
+     * */
+    public synchronized RunningStatistics getDropRate() {
+        return dropRate;
+    }
+
+    /**
+     * The main method runs the replications from the command line arguments and prints the intervals.
+     *
+     * @param args
+     * 		Command line arguments in the form key=value.
+     * */
+    public static void main(String[] args) {
+        try {
+            Properties config = BatchSimulator.readConfig(args);
+            SimulationConfig settings = SimulationConfig.fromProperties(config);
+            int threads = BatchSimulator.getInt(config, "threads", Runtime.getRuntime().availableProcessors());
+            if(threads == 0)
+                throw new IllegalArgumentException("Invalid value for threads: 0. Please enter a positive integer.");
+            ReplicationRunner runner = new ReplicationRunner(settings, settings.getSeed(),
+                    BatchSimulator.getInt(config, "replications", 1000),
+                    BatchSimulator.getInt(config, "minReplications", 5),
+                    getDouble(config, "precision", 0.01), getDouble(config, "dropPrecision", 0.001),
+                    getDouble(config, "confidence", 0.95));
+            runner.runAll(threads);
+
+            double confidence = runner.confidence;
+            RunningStatistics serviceTime = runner.getServiceTime(), dropRate = runner.getDropRate();
+            System.out.println("Replications: " + runner.getReplications() +
+                    (runner.stoppedEarly() ? " (target precision reached)" : ""));
+            System.out.println("Average service time: " + serviceTime.getMean() + " +/- " +
+                    serviceTime.getHalfWidth(confidence) + " (" + confidence * 100 + "% confidence)");
+            System.out.println("Drop rate: " + dropRate.getMean() + " +/- " + dropRate.getHalfWidth(confidence) +
+                    " (" + confidence * 100 + "% confidence)");
+        } catch(IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns a number from the configuration.
+     *
+     * @param config
+     * 		Configuration of the run.
+     *
+     * @param key
+     * 		Name of the value.
+     *
+     * @param defaultValue
+     * 		Value used when the key is absent.
+     *
+     * @throws IllegalArgumentException
+     * 		when the value is not a number.
+     *
+     * @return
+     * 		Value of the key.
+     * */
+    private static double getDouble(Properties config, String key, double defaultValue) throws IllegalArgumentException {
+        String value = config.getProperty(key);
+        if(value == null)
+            return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+    }
+}
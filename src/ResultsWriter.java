@@ -0,0 +1,432 @@
+/**
+ * The ResultsWriter class streams the detailed results of a run to files: one row for every packet
+ * delivered or dropped, and one row of queue depths for every simulation unit that is a multiple of
+ * tickEvery, including the units the event engine skips, whose depths are those of the last unit run. Rows are
+ * collected column by column in batches by the Simulator thread and written by a background thread.
+ * Each table has two batches, so the Simulator fills one while the other is being written, and waits
+ * only when the writer falls a whole batch behind. Nothing is allocated per row.
+ *
+ * <p>The Simulator thread keeps its own copy of the queue depths, updated at every change of depth, and
+ * the batches of queue depths hold their rows one after the other, so a row costs one array copy
+ * rather than a read of every router and a store into every column. The writer thread puts the
+ * depths in columns for the binary format.
+ *
+ * <p>In the binary format both tables go to one file of little-endian numbers. After a header of magic
+ * "PKTCOLS1" (8 bytes), version (int) and number of routers (int), the file is a sequence of chunks:
+ * <pre>
+ * chunk: table (int, 0 for packets, 1 for ticks), rows (int), columns (int), then every column as rows ints
+ * packets columns: id, size, arrival, time delivered or dropped, router (0 when dropped before a router), dropped (0 or 1)
+ * ticks columns: simulation unit, then the queue depth of every router in order of router number
+ * </pre>
+ * In the CSV format the packets go to path-packets.csv and the ticks to path-ticks.csv.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+
+public class ResultsWriter implements AutoCloseable {
+
+    /**
+     * The Format enum lists the file formats of a ResultsWriter.
+     */
+    public enum Format {
+        BINARY, CSV;
+
+        /**
+         * Returns the Format with the given name, ignoring case.
+         *
+         * @param name
+         * 		Name of the format, "binary" or "csv".
+         *
+         * @throws IllegalArgumentException
+         * 		when the name does not match any format.
+         *
+         * @return
+         * 		Format with the given name.
+         * */
+        public static Format parse(String name) throws IllegalArgumentException {
+            for(Format format : values())
+                if(format.name().equalsIgnoreCase(name.trim()))
+                    return format;
+
+            throw new IllegalArgumentException("Invalid results format: " + name + ". Please enter binary or csv.");
+        }
+    }
+
+    public static final long MAGIC = 0x31534c4f43544b50L; //"PKTCOLS1" read as a little-endian long
+    public static final int VERSION = 1, PACKETS = 0, TICKS = 1;
+    private static final int BATCH_ROWS = 1 << 14;
+    private static final String[] PACKET_COLUMNS = {"id", "size", "arrival", "time", "router", "dropped"};
+
+    /**
+     * The Batch class holds rows of one table: the packets column by column, the ticks row after row.
+     */
+    private static final class Batch {
+        final int table, numColumns, capacity;
+        //packets: one array per column; ticks: one array of rows of numColumns ints
+        final int[][] columns;
+        int rows;
+
+        Batch(int table, int numColumns, int capacity) {
+            this.table = table;
+            this.numColumns = numColumns;
+            this.capacity = capacity;
+            columns = (table == TICKS) ? new int[][] {new int[capacity * numColumns]} : new int[numColumns][capacity];
+        }
+    }
+
+    /**
+     * The Table class is the batch being filled for one table, its free batches and its file.
+     */
+    private static final class Table {
+        final ArrayBlockingQueue<Batch> free = new ArrayBlockingQueue<>(2);
+        final FileChannel channel;
+        Batch current;
+
+        Table(int table, int numColumns, int capacity, FileChannel channel) {
+            this.channel = channel;
+            current = new Batch(table, numColumns, capacity);
+            free.add(new Batch(table, numColumns, capacity));
+        }
+    }
+
+    //batch telling the writer thread to stop
+    private static final Batch END = new Batch(-1, 0, 0);
+
+    private final Format format;
+    private final int numRouters, tickEvery;
+    private final Table packets, ticks;
+    //Simulator thread: queue depth of every router, and the simulation unit of the next row of depths,
+    //Long.MAX_VALUE until the first simulation unit completes
+    private final int[] depths;
+    private long nextRow = Long.MAX_VALUE;
+    private final ArrayBlockingQueue<Batch> full = new ArrayBlockingQueue<>(4);
+    private final Thread writer;
+    private final ByteBuffer buffer;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    /**
+     * Constructor creates the result files, replacing any files at the paths, and starts the writer thread.
+     *
+     * @param path
+     * 		Path of the binary file, or prefix of the CSV files.
+     *
+     * @param format
+     * 		Format of the files.
+     *
+     * @param numRouters
+     * 		Number of intermediate routers.
+     *
+     * @param tickEvery
+     * 		Number of simulation units between rows of queue depths.
+     *
+     * @throws IOException
+     * 		when a file cannot be created.
+     *
+     * @throws IllegalArgumentException
+     * 		when tickEvery is not positive.
+     * */
+    public ResultsWriter(String path, Format format, int numRouters, int tickEvery)
+            throws IOException, IllegalArgumentException {
+        if(tickEvery <= 0)
+            throw new IllegalArgumentException("Invalid results interval: " + tickEvery + ". Please enter a positive integer.");
+        this.format = format;
+        this.numRouters = numRouters;
+        this.tickEvery = tickEvery;
+        depths = new int[numRouters];
+        //the tick table holds a row per router count, so its batches are kept to about the same size
+        int tickRows = Math.max(16, BATCH_ROWS * PACKET_COLUMNS.length / (numRouters + 1));
+        int largest = Math.max(BATCH_ROWS * PACKET_COLUMNS.length, tickRows * (numRouters + 1));
+        //a CSV number takes at most 11 digits and a separator
+        buffer = ByteBuffer.allocateDirect((format == Format.CSV ? 12 : 4) * largest + 64).order(ByteOrder.LITTLE_ENDIAN);
+
+        if(format == Format.BINARY) {
+            FileChannel channel = open(path);
+            packets = new Table(PACKETS, PACKET_COLUMNS.length, BATCH_ROWS, channel);
+            ticks = new Table(TICKS, numRouters + 1, tickRows, channel);
+            buffer.putLong(MAGIC).putInt(VERSION).putInt(numRouters);
+            write(channel);
+        } else {
+            packets = new Table(PACKETS, PACKET_COLUMNS.length, BATCH_ROWS, open(path + "-packets.csv"));
+            ticks = new Table(TICKS, numRouters + 1, tickRows, open(path + "-ticks.csv"));
+            StringBuilder header = new StringBuilder(String.join(",", PACKET_COLUMNS)).append('\n');
+            buffer.put(header.toString().getBytes());
+            write(packets.channel);
+            header.setLength(0);
+            header.append("time");
+            for(int router = 1; router <= numRouters; router++)
+                header.append(",router").append(router);
+            buffer.put(header.append('\n').toString().getBytes());
+            write(ticks.channel);
+        }
+
+        writer = new Thread(this::work, "results-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static FileChannel open(String path) throws IOException {
+        return FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Records a packet reaching its destination.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param size
+     * 		Size of the packet.
+     *
+     * @param arrival
+     * 		Simulation unit in which the packet arrived.
+     *
+     * @param time
+     * 		Simulation unit in which the packet was delivered.
+     *
+     * @param router
+     * 		Router number that sent the packet.
+     * */
+    public void packetDelivered(int id, int size, int arrival, int time, int router) {
+        addPacket(id, size, arrival, time, router, 0);
+    }
+
+    /**
+     * Records a dropped packet.
+     *
+     * @param id
+     * 		ID of the packet.
+     *
+     * @param size
+     * 		Size of the packet.
+     *
+     * @param arrival
+     * 		Simulation unit in which the packet arrived.
+     *
+     * @param time
+     * 		Simulation unit in which the packet was dropped.
+     *
+     * @param router
+     * 		Router number that refused the packet, or 0 when no router could take it.
+     * */
+    public void packetDropped(int id, int size, int arrival, int time, int router) {
+        addPacket(id, size, arrival, time, router, 1);
+    }
+
+    private void addPacket(int id, int size, int arrival, int time, int router, int dropped) {
+        Batch batch = packets.current;
+        int row = batch.rows;
+        int[][] columns = batch.columns;
+        columns[0][row] = id;
+        columns[1][row] = size;
+        columns[2][row] = arrival;
+        columns[3][row] = time;
+        columns[4][row] = router;
+        columns[5][row] = dropped;
+        if(++batch.rows == columns[0].length)
+            handOff(packets);
+    }
+
+    /**
+     * Records the new queue depth of a router.
+     *
+     * @param router
+     * 		Position of the router.
+     *
+     * @param depth
+     * 		Number of packets the router holds now.
+     * */
+    public void depthChanged(int router, int depth) {
+        depths[router] = depth;
+    }
+
+    /**
+     * Records the end of a range of simulation units during which the queue depths did not change, adding
+     * a row of queue depths for every unit of the range that is a multiple of tickEvery. The ranges must
+     * follow each other without a gap.
+     *
+     * @param first
+     * 		First simulation unit completed.
+     *
+     * @param last
+     * 		Last simulation unit completed, the same as first when one unit ran.
+     *
+     * @param metrics
+     * 		Statistics of the simulation, giving the queue depths when the first simulation unit completes,
+     * 		such as those of a run resumed from a checkpoint.
+     * */
+    public void ticked(int first, int last, SimulationMetrics metrics) {
+        if(nextRow == Long.MAX_VALUE) {
+            for(int router = 0; router < numRouters; router++)
+                depths[router] = metrics.getDepth(router);
+            nextRow = ((long) first + tickEvery - 1) / tickEvery * tickEvery;
+        }
+        for(; nextRow <= last; nextRow += tickEvery) {
+            Batch batch = ticks.current;
+            int[] cells = batch.columns[0];
+            int start = batch.rows * batch.numColumns;
+            cells[start] = (int) nextRow;
+            System.arraycopy(depths, 0, cells, start + 1, numRouters);
+            if(++batch.rows == batch.capacity)
+                handOff(ticks);
+        }
+    }
+
+    /**
+     * Gives the current batch of a table to the writer thread and takes the other one, waiting for the
+     * writer to finish with it.
+     *
+     * @param table
+     * 		Table whose batch is full.
+     * */
+    private void handOff(Table table) {
+        if(failure != null)
+            throw new IllegalStateException("Cannot write the results.", failure);
+        try {
+            full.put(table.current);
+            table.current = table.free.take();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the results.", e);
+        }
+    }
+
+    /**
+     * Loop of the writer thread: writes each full batch and returns it to its table.
+     * */
+    private void work() {
+        try {
+            while(true) {
+                Batch batch = full.take();
+                if(batch == END)
+                    return;
+                Table table = (batch.table == PACKETS) ? packets : ticks;
+                if(failure == null) {
+                    try {
+                        if(format == Format.BINARY)
+                            encodeColumns(batch);
+                        else
+                            encodeCsv(batch);
+                        write(table.channel);
+                    } catch(Throwable e) {
+                        failure = e;
+                    }
+                }
+                batch.rows = 0;
+                table.free.put(batch);
+            }
+        } catch(InterruptedException e) {
+            failure = e;
+        }
+    }
+
+    private void encodeColumns(Batch batch) {
+        int rows = batch.rows, numColumns = batch.numColumns;
+        buffer.putInt(batch.table).putInt(rows).putInt(numColumns);
+        if(batch.table == TICKS) {
+            //the rows follow each other, so every column is gathered from them
+            int[] cells = batch.columns[0];
+            IntBuffer ints = buffer.asIntBuffer();
+            for(int column = 0; column < numColumns; column++)
+                for(int row = 0; row < rows; row++)
+                    ints.put(cells[row * numColumns + column]);
+        } else {
+            IntBuffer ints = buffer.asIntBuffer();
+            for(int[] column : batch.columns)
+                ints.put(column, 0, rows);
+        }
+        buffer.position(buffer.position() + rows * numColumns * 4);
+    }
+
+    private void encodeCsv(Batch batch) {
+        int[][] columns = batch.columns;
+        int numColumns = batch.numColumns;
+        for(int row = 0; row < batch.rows; row++) {
+            for(int column = 0; column < numColumns; column++) {
+                if(column != 0)
+                    buffer.put((byte) ',');
+                putDecimal((batch.table == TICKS) ? columns[0][row * numColumns + column] : columns[column][row]);
+            }
+            buffer.put((byte) '\n');
+        }
+    }
+
+    /**
+     * Writes an int in decimal digits without creating a String.
+     *
+     * @param value
+     * 		Number written.
+     * */
+    private void putDecimal(int value) {
+        long v = value;
+        if(v < 0) {
+            buffer.put((byte) '-');
+            v = -v;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + v % 10));
+            v /= 10;
+        } while(v != 0);
+        //the digits were written from the last one
+        for(int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte digit = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, digit);
+        }
+    }
+
+    /**
+     * Writes the buffer to a file and clears it.
+     *
+     * @param channel
+     * 		File receiving the buffer.
+     * */
+    private void write(FileChannel channel) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes the remaining rows, stops the writer thread and closes the files.
+     *
+     * @throws IOException
+     * 		when the results cannot be written.
+     * */
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+        closed = true;
+        try {
+            if(failure == null) {
+                if(packets.current.rows != 0)
+                    full.put(packets.current);
+                if(ticks.current.rows != 0)
+                    full.put(ticks.current);
+            }
+            full.put(END);
+            writer.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the results.", e);
+        } finally {
+            packets.channel.close();
+            if(ticks.channel != packets.channel)
+                ticks.channel.close();
+        }
+        if(failure != null)
+            throw new IOException("Cannot write the results: " + failure.getMessage(), failure);
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * The RoundRobinBalancer class is a LoadBalancer sending the packets to the Routers in turn, without
+ * looking at how many packets they hold. A packet whose turn falls on a full Router is dropped.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+public class RoundRobinBalancer implements LoadBalancer {
+
+    private final List<Router> routers;
+    //position of the Router receiving the next packet
+    private int next;
+
+    /**
+     * Constructor creates a RoundRobinBalancer starting with the first Router.
+     *
+     * @param routers
+     * 		Intermediate Routers.
+     * */
+    public RoundRobinBalancer(List<Router> routers) {
+        this.routers = routers;
+    }
+
+    @Override
+    public void assign(Router dispatcher, int[] targets) {
+        int packets = dispatcher.size(), n = routers.size();
+        for(int i = 0; i < packets; i++) {
+            if(n == 0) {
+                targets[i] = -1;
+                continue;
+            }
+            targets[i] = next;
+            next = (next + 1 == n) ? 0 : next + 1;
+        }
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(next);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        next = in.readInt();
+    }
+}
@@ -1,115 +1,398 @@
-/**
- * The Router class represent a router in the network, which is ultimately a queue.
- * This class inherits all properties and behaviors from the LinkedList class and
- * contains all necessary methods to modify a queue.
- *
- * @author Zhen Wei Liao
- **/
-import java.util.LinkedList;
-
-public class Router extends LinkedList<Packet> {
-
-    //maximum size of the Router
-    private static int maxBufferSize;
-
-    public Router() {
-        super();
-    }
-
-    /**
-     * Modifier. Modifies the maximum size of the Router.
-     *
-     * @param maxBufferSize
-     * 		Maximum size of the Router.
-     * */
-    public static void setMaxBufferSize(int maxBufferSize) {
-        Router.maxBufferSize = maxBufferSize;
-    }
-
-    /**
-     * Adds a packet to the end of the Router queue.
-     *
-     * @param p
-     * 		Packet being added to the queue.
-     * */
-    public void enqueue(Packet p) {
-        this.add(p);
-    }
-
-    /**
-     * Removes a packet from the front of the Router queue.
-     *
-     * @throws EmptyBufferException
-     * 		when router is empty.
-     *
-     * @return
-     * 		Packet removed from the queue.
-     * */
-    public Packet dequeue() throws EmptyBufferException{
-        if(isEmpty())
-            throw new EmptyBufferException("Invalid. The router is empty");
-
-        return remove();
-    }
-
-    /**
-     * Determines if the queue is empty.
-     *
-     * @return
-     * 		true if queue is empty, false otherwise
-     * */
-    @Override
-    public boolean isEmpty() {
-        return (size() == 0);
-    }
-
-    /**
-     * Returns the string representation of the Router.
-     *
-     * @return
-     * 		String representation of Router.
-     * */
-    @Override
-    public String toString() {
-        StringBuilder str = new StringBuilder("{");
-        if(!isEmpty()) {
-            for(int i = 0; i < this.size() - 1; i++)
-                str.append(this.get(i).toString()).append(", ");
-            str.append(this.get(this.size() - 1));
-        }
-        str.append("}");
-        return str.toString();
-    }
-
-    /**
-     * Determines which Router in the list of intermediate Routers is available to receive a packet.
-     *
-     * @param routers
-     * 		List of intermediate Routers.
-     *
-     * @throws FullBufferException
-     * 		when all Routers in the given list reached maxBufferSize.
-     *
-     * @return
-     * 		Index of the available router.
-     * */
-    public static int sendPacketTo(LinkedList<Router> routers) throws FullBufferException {
-        int index = 0;
-        boolean isFull = true, execute = true;
-        for(int i = 0; i < routers.size(); i++) {
-            if(routers.get(i).size() < routers.get(index).size())
-                index = i;
-
-            // execute is used to determine if the following if-statement should run or not.
-            if(execute && routers.get(i).size() < maxBufferSize) {
-                isFull = false;
-                execute = false;
-            }
-        }
-
-        if(isFull)
-            throw new FullBufferException();
-
-        return index;
-    }
+/**
+ * The Router class represent a router in the network, which is ultimately a queue.
+ * The queue holds slots in a PacketStore and is kept by a QueueDiscipline, first in, first out
+ * (a fixed-capacity ring buffer) unless another discipline is given, so adding and removing packets
+ * never allocates memory. Routers sharing a PacketStore can pass slots to each other without copying
+ * the packets.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class Router implements Iterable<Packet> {
+
+    private final PacketStore store;
+    private final QueueDiscipline queue;
+    //index told about every change of size, and the position of this router in it
+    private RouterLoadIndex loadIndex;
+    private int loadIndexPosition;
+
+    /**
+     * Constructor creates an empty Router that holds at most the given number of packets.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the Router.
+     *
+     * @throws IllegalArgumentException
+     * 		when capacity is negative.
+     * */
+    public Router(int capacity) throws IllegalArgumentException {
+        this(capacity, new PacketStore(capacity));
+    }
+
+    /**
+     * Constructor creates an empty Router that holds at most the given number of packets,
+     * whose information is kept in the given PacketStore.
+     *
+     * @param capacity
+     * 		Maximum number of packets in the Router.
+     *
+     * @param store
+     * 		PacketStore holding the packets of the Router.
+     *
+     * @throws IllegalArgumentException
+     * 		when capacity is negative.
+     * */
+    public Router(int capacity, PacketStore store) throws IllegalArgumentException {
+        this(store, new FifoQueue(checkCapacity(capacity)));
+    }
+
+    /**
+     * Constructor creates an empty Router whose packets are ordered by the given QueueDiscipline
+     * and kept in the given PacketStore.
+     *
+     * @param store
+     * 		PacketStore holding the packets of the Router.
+     *
+     * @param queue
+     * 		Empty QueueDiscipline deciding the order of the packets.
+     * */
+    public Router(PacketStore store, QueueDiscipline queue) {
+        this.store = store;
+        this.queue = queue;
+    }
+
+    private static int checkCapacity(int capacity) throws IllegalArgumentException {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Invalid. The capacity of a router cannot be negative");
+        return capacity;
+    }
+
+    /**
+     * Accessor. Returns the QueueDiscipline deciding the order of the packets of the Router.
+     *
+     * @return
+     * 		QueueDiscipline of the Router.
+     * */
+    public QueueDiscipline getQueue() {
+        return queue;
+    }
+
+    /**
+     * Accessor. Returns the PacketStore holding the packets of the Router.
+     *
+     * @return
+     * 		PacketStore of the Router.
+     * */
+    public PacketStore getStore() {
+        return store;
+    }
+
+    /**
+     * Attaches this Router to a RouterLoadIndex, which is told about every change of size.
+     *
+     * @param loadIndex
+     * 		Index the Router belongs to.
+     *
+     * @param position
+     * 		Position of the Router in the index.
+     * */
+    void attach(RouterLoadIndex loadIndex, int position) {
+        this.loadIndex = loadIndex;
+        this.loadIndexPosition = position;
+    }
+
+    /**
+     * Adds a packet to the end of the Router queue. The packet is copied into the PacketStore.
+     *
+     * @param p
+     * 		Packet being added to the queue.
+     *
+     * @throws IllegalStateException
+     * 		when the router is full.
+     * */
+    public void enqueue(Packet p) throws IllegalStateException {
+        if(isFull())
+            throw new IllegalStateException("Invalid. The router is full");
+
+        enqueueSlot(store.allocate(p));
+    }
+
+    /**
+     * Adds the packet held in the given slot of the PacketStore to the end of the Router queue.
+     *
+     * @param slot
+     * 		Slot of the packet being added to the queue.
+     *
+     * @throws IllegalStateException
+     * 		when the router is full.
+     * */
+    public void enqueueSlot(int slot) throws IllegalStateException {
+        if(isFull())
+            throw new IllegalStateException("Invalid. The router is full");
+
+        queue.add(slot);
+        if(loadIndex != null)
+            loadIndex.update(loadIndexPosition, queue.size());
+    }
+
+    /**
+     * Adds the packet held in the given slot if the Router is not full and its QueueDiscipline accepts it.
+     *
+     * @param slot
+     * 		Slot of the packet being added to the queue.
+     *
+     * @return
+     * 		true if the packet was added, false if it must be dropped.
+     * */
+    public boolean offerSlot(int slot) {
+        if(isFull() || !queue.admit(slot)) {
+            //the index may have counted the packet in advance
+            if(loadIndex != null)
+                loadIndex.update(loadIndexPosition, queue.size());
+            return false;
+        }
+        enqueueSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes a packet from the front of the Router queue and frees its slot in the PacketStore.
+     *
+     * @throws EmptyBufferException
+     * 		when router is empty.
+     *
+     * @return
+     * 		Packet removed from the queue.
+     * */
+    public Packet dequeue() throws EmptyBufferException{
+        int slot = dequeueSlot();
+        Packet p = store.toPacket(slot);
+        store.release(slot);
+        return p;
+    }
+
+    /**
+     * Removes the packet at the front of the Router queue, the next one its QueueDiscipline sends.
+     * The slot of the packet stays in use.
+     *
+     * @throws EmptyBufferException
+     * 		when router is empty.
+     *
+     * @return
+     * 		Slot of the packet removed from the queue.
+     * */
+    public int dequeueSlot() throws EmptyBufferException{
+        if(isEmpty())
+            throw new EmptyBufferException("Invalid. The router is empty");
+
+        int slot = queue.poll();
+        if(loadIndex != null)
+            loadIndex.update(loadIndexPosition, queue.size());
+        return slot;
+    }
+
+    /**
+     * Removes every packet from the Router queue. The slots of the packets stay in use.
+     * */
+    public void clear() {
+        queue.clear();
+        if(loadIndex != null)
+            loadIndex.update(loadIndexPosition, 0);
+    }
+
+    /**
+     * Returns a copy of the packet at the front of the Router queue without removing it.
+     *
+     * @return
+     * 		Packet at the front of the queue, or null if the queue is empty.
+     * */
+    public Packet peek() {
+        return isEmpty() ? null : store.toPacket(queue.peek());
+    }
+
+    /**
+     * Returns the slot of the packet at the front of the Router queue without removing it.
+     *
+     * @return
+     * 		Slot of the packet at the front of the queue, or -1 if the queue is empty.
+     * */
+    public int peekSlot() {
+        return queue.peek();
+    }
+
+    /**
+     * Returns a copy of the packet at the given position of the Router queue.
+     *
+     * @param i
+     * 		Position of the packet, 0 being the front of the queue.
+     *
+     * @throws IndexOutOfBoundsException
+     * 		when i is not a position in the queue.
+     *
+     * @return
+     * 		Packet at the given position.
+     * */
+    public Packet get(int i) throws IndexOutOfBoundsException {
+        return store.toPacket(getSlot(i));
+    }
+
+    /**
+     * Returns the slot of the packet at the given position of the Router queue. Positions follow the
+     * order of sending only for a first in, first out queue.
+     *
+     * @param i
+     * 		Position of the packet, 0 being the front of a first in, first out queue.
+     *
+     * @throws IndexOutOfBoundsException
+     * 		when i is not a position in the queue.
+     *
+     * @return
+     * 		Slot of the packet at the given position.
+     * */
+    public int getSlot(int i) throws IndexOutOfBoundsException {
+        if(i < 0 || i >= queue.size())
+            throw new IndexOutOfBoundsException("Invalid position " + i + " for a router of size " + queue.size());
+
+        return queue.get(i);
+    }
+
+    /**
+     * Returns the number of packets in the Router queue.
+     *
+     * @return
+     * 		Number of packets in the queue.
+     * */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the maximum number of packets in the Router queue.
+     *
+     * @return
+     * 		Maximum number of packets in the queue.
+     * */
+    public int capacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * Determines if the queue is empty.
+     *
+     * @return
+     * 		true if queue is empty, false otherwise
+     * */
+    public boolean isEmpty() {
+        return (queue.size() == 0);
+    }
+
+    /**
+     * Determines if the queue is full.
+     *
+     * @return
+     * 		true if queue reached its capacity, false otherwise
+     * */
+    public boolean isFull() {
+        return (queue.size() == queue.capacity());
+    }
+
+    /**
+     * Returns an iterator over copies of the packets in the queue, from front to back.
+     *
+     * @return
+     * 		Iterator over the packets in the queue.
+     * */
+    @Override
+    public Iterator<Packet> iterator() {
+        return new Iterator<Packet>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < queue.size();
+            }
+
+            @Override
+            public Packet next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                return get(i++);
+            }
+        };
+    }
+
+    /**
+     * Returns the string representation of the Router.
+     *
+     * @return
+     * 		String representation of Router.
+     * */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("{");
+        for(int i = 0; i < queue.size(); i++) {
+            if(i > 0)
+                str.append(", ");
+            str.append(store.toString(getSlot(i)));
+        }
+        str.append("}");
+        return str.toString();
+    }
+
+    /**
+     * Determines which Router in the list of intermediate Routers is available to receive a packet.
+     * This scans the whole list; use {@link #sendPacketTo(RouterLoadIndex)} when the Routers are indexed.
+     *
+     * @param routers
+     * 		List of intermediate Routers.
+     *
+     * @throws FullBufferException
+     * 		when all Routers in the given list reached their capacity.
+     *
+     * @return
+     * 		Index of the available router.
+     * */
+    public static int sendPacketTo(List<Router> routers) throws FullBufferException {
+        int index = 0;
+        boolean isFull = true, execute = true;
+        for(int i = 0; i < routers.size(); i++) {
+            if(routers.get(i).size() < routers.get(index).size())
+                index = i;
+
+            // execute is used to determine if the following if-statement should run or not.
+            if(execute && !routers.get(i).isFull()) {
+                isFull = false;
+                execute = false;
+            }
+        }
+
+        if(isFull)
+            throw new FullBufferException();
+
+        return index;
+    }
+
+    /**
+     * Determines which indexed Router is available to receive a packet, choosing the same
+     * Router as {@link #sendPacketTo(List)} in constant time.
+     *
+     * @param loadIndex
+     * 		Index over the intermediate Routers.
+     *
+     * @throws FullBufferException
+     * 		when all Routers in the index reached their capacity.
+     *
+     * @return
+     * 		Index of the available router.
+     * */
+    public static int sendPacketTo(RouterLoadIndex loadIndex) throws FullBufferException {
+        int index = loadIndex.leastLoaded();
+        if(index == -1)
+            throw new FullBufferException();
+
+        return index;
+    }
 }
\ No newline at end of file
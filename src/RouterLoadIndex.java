@@ -0,0 +1,173 @@
+/**
+ * The RouterLoadIndex class keeps a group of Routers in an indexed min-heap ordered by how many
+ * packets they hold, so the least loaded Router is found in constant time and kept up to date in
+ * logarithmic time whenever a Router gains or loses a packet.
+ *
+ * <p>Routers that are full come after every Router that is not. Routers holding the same number
+ * of packets are ordered by their position in the group, so the first least loaded Router is
+ * chosen, like a linear scan would.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.List;
+
+public class RouterLoadIndex {
+
+    //heap of router positions and, for each router, its position in the heap
+    private final int[] heap, heapIndex;
+    private final int[] sizes, capacities;
+
+    /**
+     * Constructor creates a RouterLoadIndex over the given Routers and attaches itself to them,
+     * so that every later enqueue or dequeue on these Routers updates the index.
+     *
+     * @param routers
+     * 		Routers being indexed. A Router belongs to at most one RouterLoadIndex.
+     * */
+    public RouterLoadIndex(List<Router> routers) {
+        int n = routers.size();
+        heap = new int[n];
+        heapIndex = new int[n];
+        sizes = new int[n];
+        capacities = new int[n];
+        for(int i = 0; i < n; i++) {
+            Router router = routers.get(i);
+            sizes[i] = router.size();
+            capacities[i] = router.capacity();
+            heap[i] = i;
+            heapIndex[i] = i;
+            router.attach(this, i);
+        }
+        for(int i = n / 2 - 1; i >= 0; i--)
+            siftDown(i);
+    }
+
+    /**
+     * Returns the number of Routers in the index.
+     *
+     * @return
+     * 		Number of Routers in the index.
+     * */
+    public int size() {
+        return heap.length;
+    }
+
+    /**
+     * Determines if every Router in the index is full.
+     *
+     * @return
+     * 		true if no Router can receive a packet, false otherwise.
+     * */
+    public boolean isFull() {
+        return heap.length == 0 || sizes[heap[0]] >= capacities[heap[0]];
+    }
+
+    /**
+     * Returns the position of the Router holding the fewest packets that can still receive one.
+     *
+     * @return
+     * 		Position of the least loaded Router, or -1 if every Router is full.
+     * */
+    public int leastLoaded() {
+        return isFull() ? -1 : heap[0];
+    }
+
+    /**
+     * Chooses the Routers receiving a batch of packets, filling the least loaded Routers level by level:
+     * every Router holding the fewest packets receives one, in order of position, before any of them
+     * receives another. This is the same choice as calling {@link #leastLoaded()} before each packet.
+     * The index counts the chosen packets right away, so the caller must enqueue a packet in every
+     * chosen Router, in the returned order.
+     *
+     * @param packets
+     * 		Number of packets in the batch.
+     *
+     * @param targets
+     * 		Receives the position of the Router chosen for each packet; holds at least <code>packets</code> entries.
+     *
+     * @return
+     * 		Number of packets given a Router. The remaining packets found every Router full.
+     * */
+    public int assign(int packets, int[] targets) {
+        int assigned = 0;
+        while(assigned < packets && !isFull()) {
+            int router = heap[0];
+            targets[assigned++] = router;
+            sizes[router]++;
+            siftDown(0);
+        }
+        return assigned;
+    }
+
+    /**
+     * Records the new number of packets held by a Router. Called by the Router itself.
+     *
+     * @param router
+     * 		Position of the Router in the group.
+     *
+     * @param size
+     * 		Number of packets the Router holds now.
+     * */
+    void update(int router, int size) {
+        int oldSize = sizes[router];
+        sizes[router] = size;
+        if(size > oldSize)
+            siftDown(heapIndex[router]);
+        else if(size < oldSize)
+            siftUp(heapIndex[router]);
+    }
+
+    /**
+     * Determines if Router a should be chosen before Router b.
+     *
+     * @param a
+     * 		Position of the first Router.
+     *
+     * @param b
+     * 		Position of the second Router.
+     *
+     * @return
+     * 		true if a comes before b, false otherwise.
+     * */
+    private boolean before(int a, int b) {
+        boolean fullA = sizes[a] >= capacities[a], fullB = sizes[b] >= capacities[b];
+        if(fullA != fullB)
+            return fullB;
+        if(sizes[a] != sizes[b])
+            return sizes[a] < sizes[b];
+        return a < b;
+    }
+
+    private void siftUp(int i) {
+        int router = heap[i];
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!before(router, heap[parent]))
+                break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(router, i);
+    }
+
+    private void siftDown(int i) {
+        int router = heap[i], n = heap.length;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= n)
+                break;
+            if(child + 1 < n && before(heap[child + 1], heap[child]))
+                child++;
+            if(!before(heap[child], router))
+                break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(router, i);
+    }
+
+    private void place(int router, int i) {
+        heap[i] = router;
+        heapIndex[router] = i;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * The RouterShards class splits the positions of the Routers into contiguous shards and runs a task
+ * on every shard at the same time, one thread per shard. The calling thread runs the first shard
+ * and {@link #run()} returns once every shard is done, so the phases before and after it see the
+ * Routers as if the task had run on one thread.
+ *
+ * <p>The worker threads wait for the next phase by spinning first, because a simulation unit is
+ * usually shorter than the time it takes to wake a blocked thread, then by yielding, and park once
+ * that budget runs out, so a shard does not hold a processor through long serial phases. Starting a
+ * phase unparks the workers that parked.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class RouterShards implements AutoCloseable {
+
+    /**
+     * The ShardTask interface is the work done on one shard.
+     */
+    public interface ShardTask {
+        /**
+         * Runs the task on the Routers in the range [from, to).
+         *
+         * @param shard
+         * 		Number of the shard, starting from 0.
+         *
+         * @param from
+         * 		Position of the first Router of the shard.
+         *
+         * @param to
+         * 		Position after the last Router of the shard.
+         * */
+        void run(int shard, int from, int to);
+    }
+
+    //spins before a waiting thread starts yielding its processor, and before a worker parks
+    private static final int SPINS_BEFORE_YIELD = 1 << 10, SPINS_BEFORE_PARK = SPINS_BEFORE_YIELD + (1 << 6);
+
+    private final ShardTask task;
+    private final int[] bounds;
+    private final Thread[] workers;
+    //incremented to start a phase; workers run their shard once per increment
+    private volatile int phase;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private final AtomicInteger remaining = new AtomicInteger();
+    //1 for every worker that is parked or about to park, by position in workers
+    private final AtomicIntegerArray parked;
+
+    /**
+     * Constructor splits the Routers into shards of nearly equal size and starts a thread for every
+     * shard but the first.
+     *
+     * @param numShards
+     * 		Number of shards. At most one shard is made per Router.
+     *
+     * @param numRouters
+     * 		Number of Routers.
+     *
+     * @param task
+     * 		Work done on each shard in every phase.
+     * */
+    public RouterShards(int numShards, int numRouters, ShardTask task) {
+        numShards = Math.max(1, Math.min(numShards, numRouters));
+        this.task = task;
+        bounds = new int[numShards + 1];
+        for(int shard = 0; shard <= numShards; shard++)
+            bounds[shard] = (int) ((long) shard * numRouters / numShards);
+
+        workers = new Thread[numShards - 1];
+        parked = new AtomicIntegerArray(workers.length);
+        for(int i = 0; i < workers.length; i++) {
+            int shard = i + 1;
+            workers[i] = new Thread(() -> work(shard), "router-shard-" + shard);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return
+     * 		Number of shards.
+     * */
+    public int size() {
+        return bounds.length - 1;
+    }
+
+    /**
+     * Returns the number of Routers in a shard.
+     *
+     * @param shard
+     * 		Number of the shard.
+     *
+     * @return
+     * 		Number of Routers in the shard.
+     * */
+    public int shardSize(int shard) {
+        return bounds[shard + 1] - bounds[shard];
+    }
+
+    /**
+     * Loop of a worker thread: waits for a phase, runs its shard and reports it is done.
+     *
+     * @param shard
+     * 		Number of the shard run by the thread.
+     * */
+    private void work(int shard) {
+        int seen = 0;
+        while(true) {
+            int spins = 0;
+            while(phase == seen && !closed) {
+                if(spins < SPINS_BEFORE_PARK) {
+                    spins = pause(spins);
+                    continue;
+                }
+                //run() reads the flag after starting the phase, so either the phase is seen here or the worker is unparked
+                parked.set(shard - 1, 1);
+                if(phase == seen && !closed)
+                    LockSupport.park(this);
+                parked.set(shard - 1, 0);
+            }
+            if(closed)
+                return;
+            seen++;
+            try {
+                task.run(shard, bounds[shard], bounds[shard + 1]);
+            } catch(Throwable e) {
+                failure = e;
+            }
+            remaining.decrementAndGet();
+        }
+    }
+
+    private static int pause(int spins) {
+        if(spins < SPINS_BEFORE_YIELD)
+            Thread.onSpinWait();
+        else
+            Thread.yield();
+        return spins + 1;
+    }
+
+    /**
+     * Runs the task on every shard and waits until all of them are done.
+     *
+     * @throws IllegalStateException
+     * 		when the task failed on a shard, or the shards were closed.
+     * */
+    public void run() throws IllegalStateException {
+        if(closed)
+            throw new IllegalStateException("The router shards are closed.");
+
+        remaining.set(workers.length);
+        phase++;
+        for(int i = 0; i < workers.length; i++)
+            if(parked.get(i) != 0)
+                LockSupport.unpark(workers[i]);
+        task.run(0, bounds[0], bounds[1]);
+        int spins = 0;
+        while(remaining.get() != 0)
+            spins = pause(spins);
+
+        if(failure != null)
+            throw new IllegalStateException("A router shard failed.", failure);
+    }
+
+    /**
+     * Stops the worker threads.
+     * */
+    @Override
+    public void close() {
+        closed = true;
+        for(Thread worker : workers)
+            LockSupport.unpark(worker);
+        for(Thread worker : workers) {
+            try {
+                worker.join();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * The RunningStatistics class keeps the mean and variance of a stream of values in one pass, with
+ * Welford's update, which stays accurate where summing squares would lose every digit. Two
+ * RunningStatistics can be merged, so values collected on different threads can be combined.
+ * It also gives the confidence interval of the mean from Student's t distribution.
+ *
+ * @author Zhen Wei Liao
+ **/
+public class RunningStatistics {
+
+    //degrees of freedom from which the t quantile comes from the expansion instead of the exact distribution
+    private static final int EXACT_DEGREES = 30;
+
+    private long count;
+    //mean of the values and sum of squared differences from it
+    private double mean, squares;
+
+    /**
+     * Adds a value.
+     *
+     * @param value
+     * 		Value added.
+     * */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+    }
+
+    /**
+     * Adds every value of another RunningStatistics, as if they had been added one by one.
+     *
+     * @param other
+     * 		RunningStatistics whose values are added.
+     * */
+    public void merge(RunningStatistics other) {
+        if(other.count == 0)
+            return;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squares += other.squares + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return
+     * 		Number of values added.
+     * */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values.
+     *
+     * @return
+     * 		Mean, 0 when no value was added.
+     * */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample variance of the values.
+     *
+     * @return
+     * 		Sample variance, 0 with fewer than two values.
+     * */
+    public double getVariance() {
+        return count < 2 ? 0 : squares / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values.
+     *
+     * @return
+     * 		Sample standard deviation.
+     * */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the half width of the confidence interval of the mean: the true mean lies within
+     * the mean plus or minus this value with the given confidence.
+     *
+     * @param confidence
+     * 		Confidence level, such as 0.95.
+     *
+     * @return
+     * 		Half width of the interval, infinite with fewer than two values.
+     * */
+    public double getHalfWidth(double confidence) {
+        if(count < 2)
+            return Double.POSITIVE_INFINITY;
+        return studentQuantile(1 - (1 - confidence) / 2, count - 1) * Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Returns the half width of the confidence interval divided by the mean.
+     *
+     * @param confidence
+     * 		Confidence level, such as 0.95.
+     *
+     * @return
+     * 		Relative half width; 0 when every value is the same, infinite when the mean is 0 and they are not.
+     * */
+    public double getRelativeHalfWidth(double confidence) {
+        double halfWidth = getHalfWidth(confidence);
+        if(halfWidth == 0)
+            return 0;
+        return mean == 0 ? Double.POSITIVE_INFINITY : halfWidth / Math.abs(mean);
+    }
+
+    /**
+     * Returns the quantile of Student's t distribution. Below 30 degrees of freedom the exact
+     * distribution function is inverted by bisection; from 30 on, the normal quantile is corrected with
+     * the Cornish-Fisher expansion, whose error there is below 0.001% up to p = 0.9995 and which
+     * converges to the normal quantile as the degrees grow.
+     *
+     * @param p
+     * 		Probability, in (0, 1).
+     *
+     * @param degrees
+     * 		Degrees of freedom.
+     *
+     * @return
+     * 		Value below which a t-distributed variable falls with probability p.
+     * */
+    static double studentQuantile(double p, long degrees) {
+        //closed forms for 1 and 2 degrees of freedom
+        if(degrees == 1)
+            return Math.tan(Math.PI * (p - 0.5));
+        if(degrees == 2)
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        double n = degrees;
+        if(degrees < EXACT_DEGREES) {
+            //with t = sqrt(n) tan(theta), P(|T| < t) rises from 0 to 1 as theta goes from 0 to pi/2
+            double target = Math.abs(2 * p - 1), low = 0, high = Math.PI / 2;
+            for(int i = 0; i < 64; i++) {
+                double middle = (low + high) / 2;
+                if(studentCentral(middle, (int) degrees) < target)
+                    low = middle;
+                else
+                    high = middle;
+            }
+            return Math.copySign(Math.sqrt(n) * Math.tan((low + high) / 2), p - 0.5);
+        }
+        double z = normalQuantile(p), z2 = z * z;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        return z + g1 / n + g2 / (n * n) + g3 / (n * n * n) + g4 / (n * n * n * n);
+    }
+
+    /**
+     * Returns the probability that a t-distributed variable lies within plus or minus sqrt(degrees)
+     * tan(theta), from the finite series of Abramowitz and Stegun 26.7.3 for integer degrees of freedom.
+     *
+     * @param theta
+     * 		Angle, in [0, pi/2].
+     *
+     * @param degrees
+     * 		Degrees of freedom, at least 1.
+     *
+     * @return
+     * 		Probability of the central interval.
+     * */
+    private static double studentCentral(double theta, int degrees) {
+        double sin = Math.sin(theta), cos = Math.cos(theta), cos2 = cos * cos;
+        if(degrees % 2 == 1) {
+            double term = cos, sum = degrees == 1 ? 0 : cos;
+            for(int k = 1; k <= (degrees - 3) / 2; k++) {
+                term *= cos2 * (2 * k) / (2 * k + 1);
+                sum += term;
+            }
+            return 2 / Math.PI * (theta + sin * sum);
+        }
+        double term = 1, sum = 1;
+        for(int k = 1; k <= (degrees - 2) / 2; k++) {
+            term *= cos2 * (2 * k - 1) / (2 * k);
+            sum += term;
+        }
+        return sin * sum;
+    }
+
+    /**
+     * Returns the quantile of the standard normal distribution, with Acklam's rational approximation
+     * (relative error below 1.2e-9).
+     *
+     * @param p
+     * 		Probability, in (0, 1).
+     *
+     * @return
+     * 		Value below which a standard normal variable falls with probability p.
+     * */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        double low = 0.02425;
+        if(p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+                    ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if(p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) /
+                    ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5, r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q /
+                (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * The ShortestQueueBalancer class is the LoadBalancer of the original simulator (join the shortest
+ * queue): each packet goes to the Router holding the fewest packets, lowest position first. The
+ * RouterLoadIndex fills the least loaded Routers level by level in one pass over the batch.
+ *
+ * @author Zhen Wei Liao
+ **/
+public class ShortestQueueBalancer implements LoadBalancer {
+
+    private final RouterLoadIndex loadIndex;
+
+    /**
+     * Constructor creates a ShortestQueueBalancer.
+     *
+     * @param loadIndex
+     * 		Index over the intermediate Routers.
+     * */
+    public ShortestQueueBalancer(RouterLoadIndex loadIndex) {
+        this.loadIndex = loadIndex;
+    }
+
+    @Override
+    public void assign(Router dispatcher, int[] targets) {
+        int packets = dispatcher.size(), assigned = loadIndex.assign(packets, targets);
+        for(int i = assigned; i < packets; i++)
+            targets[i] = -1;
+    }
+}
@@ -0,0 +1,947 @@
+/**
+ * The SimulationConfig class holds every setting of one simulation. It cannot be changed once built,
+ * so any number of Simulators can share it, and it replaces the settings that used to be kept in
+ * static variables (the maximum buffer size of Router and Simulator.MAX_PACKETS).
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.Properties;
+
+public final class SimulationConfig {
+
+    private final int numIntRouters, maxBufferSize, maxPackets, minPacketSize, maxPacketSize, bandwidth, duration,
+            shards, queueClasses, choices;
+    private final double arrivalProb, steadyPrecision, arrivalRate, onTime, offTime, sizeShape;
+    private final double[] mmppRates, mmppDwell;
+    private final boolean warmup;
+    private final long seed;
+    private final SimulationEngine engine;
+    private final QueueType queue;
+    private final BalancerType balancer;
+    private final ArrivalType arrivals;
+    private final SizeType sizes;
+
+    private SimulationConfig(Builder builder) {
+        numIntRouters = builder.numIntRouters;
+        arrivalProb = builder.arrivalProb;
+        maxBufferSize = builder.maxBufferSize;
+        maxPackets = builder.maxPackets;
+        minPacketSize = builder.minPacketSize;
+        maxPacketSize = builder.maxPacketSize;
+        bandwidth = builder.bandwidth;
+        duration = builder.duration;
+        seed = builder.seed;
+        engine = builder.engine;
+        shards = builder.shards;
+        queue = builder.queue;
+        queueClasses = builder.queueClasses;
+        balancer = builder.balancer;
+        choices = builder.choices;
+        warmup = builder.warmup;
+        steadyPrecision = builder.steadyPrecision;
+        arrivals = builder.arrivals;
+        arrivalRate = builder.arrivalRate;
+        onTime = builder.onTime;
+        offTime = builder.offTime;
+        mmppRates = builder.mmppRates.clone();
+        mmppDwell = builder.mmppDwell.clone();
+        sizes = builder.sizes;
+        sizeShape = builder.sizeShape;
+    }
+
+    /**
+     * Returns a Builder holding the default settings and a seed taken from the system clock.
+     *
+     * @return
+     * 		A new Builder.
+     * */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a Builder holding the settings of this SimulationConfig, to build a changed copy.
+     *
+     * @return
+     * 		A new Builder.
+     * */
+    public Builder toBuilder() {
+        return new Builder().numIntRouters(numIntRouters).arrivalProb(arrivalProb).maxBufferSize(maxBufferSize)
+                .maxPackets(maxPackets).minPacketSize(minPacketSize).maxPacketSize(maxPacketSize)
+                .bandwidth(bandwidth).duration(duration).seed(seed).engine(engine).shards(shards)
+                .queue(queue).queueClasses(queueClasses)
+                .balancer(balancer).choices(choices).warmup(warmup).steadyPrecision(steadyPrecision)
+                .arrivals(arrivals).arrivalRate(arrivalRate).onTime(onTime).offTime(offTime)
+                .mmppRates(mmppRates).mmppDwell(mmppDwell).sizes(sizes).sizeShape(sizeShape);
+    }
+
+    /**
+     * Returns the number of intermediate routers.
+     *
+     * @return
+     * 		Number of intermediate routers.
+     * */
+    public int getNumIntRouters() {
+        return numIntRouters;
+    }
+
+    /**
+     * Returns the probability in which a packet will arrive at dispatcher.
+     *
+     * @return
+     * 		Arrival probability of a packet.
+     * */
+    public double getArrivalProb() {
+        return arrivalProb;
+    }
+
+    /**
+     * Returns the maximum size of each intermediate router.
+     *
+     * @return
+     * 		Maximum size of a router.
+     * */
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    /**
+     * Returns the maximum packets that can arrive at dispatcher in one simulation unit.
+     *
+     * @return
+     * 		Maximum packets arriving in one simulation unit.
+     * */
+    public int getMaxPackets() {
+        return maxPackets;
+    }
+
+    /**
+     * Returns the minimum packet size.
+     *
+     * @return
+     * 		Minimum packet size.
+     * */
+    public int getMinPacketSize() {
+        return minPacketSize;
+    }
+
+    /**
+     * Returns the maximum packet size.
+     *
+     * @return
+     * 		Maximum packet size.
+     * */
+    public int getMaxPacketSize() {
+        return maxPacketSize;
+    }
+
+    /**
+     * Returns the maximum number of packets the destination can receive in one simulation unit.
+     *
+     * @return
+     * 		Bandwidth of the destination.
+     * */
+    public int getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * Returns the number of simulation units.
+     *
+     * @return
+     * 		Duration of the simulation.
+     * */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the seed of the random numbers deciding when packets arrive and how large they are.
+     *
+     * @return
+     * 		Seed of the simulation.
+     * */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the engine used to advance time.
+     *
+     * @return
+     * 		SimulationEngine of the simulation.
+     * */
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the number of shards the routers are split into by the parallel engine.
+     *
+     * @return
+     * 		Number of router shards.
+     * */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Returns the queue discipline of the intermediate routers.
+     *
+     * @return
+     * 		QueueType of the routers.
+     * */
+    public QueueType getQueue() {
+        return queue;
+    }
+
+    /**
+     * Returns the number of size classes used by the priority and wfq queue disciplines.
+     *
+     * @return
+     * 		Number of size classes.
+     * */
+    public int getQueueClasses() {
+        return queueClasses;
+    }
+
+    /**
+     * Returns the load balancer of the dispatcher.
+     *
+     * @return
+     * 		BalancerType of the dispatcher.
+     * */
+    public BalancerType getBalancer() {
+        return balancer;
+    }
+
+    /**
+     * Returns the number of routers sampled for each packet by the powerofd load balancer.
+     *
+     * @return
+     * 		Number of choices.
+     * */
+    public int getChoices() {
+        return choices;
+    }
+
+    /**
+     * Returns whether the simulation finds the end of its warm-up and reports steady-state statistics.
+     *
+     * @return
+     * 		true if the warm-up is detected.
+     * */
+    public boolean isWarmup() {
+        return warmup;
+    }
+
+    /**
+     * Returns the relative precision of the steady-state service time at which the simulation ends
+     * before its duration.
+     *
+     * @return
+     * 		Relative half width of the confidence interval, 0 when the simulation always runs its duration.
+     * */
+    public double getSteadyPrecision() {
+        return steadyPrecision;
+    }
+
+    /**
+     * Returns the traffic model generating the packets arriving at the dispatcher.
+     *
+     * @return
+     * 		ArrivalType of the simulation.
+     * */
+    public ArrivalType getArrivals() {
+        return arrivals;
+    }
+
+    /**
+     * Returns the mean number of packets arriving in one simulation unit under the poisson traffic model,
+     * and during the bursts of the onoff traffic model.
+     *
+     * @return
+     * 		Arrival rate.
+     * */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    /**
+     * Returns the mean number of simulation units of a burst of the onoff traffic model.
+     *
+     * @return
+     * 		Mean length of a burst.
+     * */
+    public double getOnTime() {
+        return onTime;
+    }
+
+    /**
+     * Returns the mean number of simulation units between two bursts of the onoff traffic model.
+     *
+     * @return
+     * 		Mean length of a silence.
+     * */
+    public double getOffTime() {
+        return offTime;
+    }
+
+    /**
+     * Returns the arrival rate of each state of the mmpp traffic model.
+     *
+     * @return
+     * 		Copy of the arrival rates.
+     * */
+    public double[] getMmppRates() {
+        return mmppRates.clone();
+    }
+
+    /**
+     * Returns the mean number of simulation units spent in each state of the mmpp traffic model.
+     *
+     * @return
+     * 		Copy of the mean dwell times.
+     * */
+    public double[] getMmppDwell() {
+        return mmppDwell.clone();
+    }
+
+    /**
+     * Returns the distribution of the packet sizes.
+     *
+     * @return
+     * 		SizeType of the packets.
+     * */
+    public SizeType getSizes() {
+        return sizes;
+    }
+
+    /**
+     * Returns the shape of the packet size distribution: the shape of the pareto sizes, or the standard
+     * deviation of the logarithm of the lognormal sizes.
+     *
+     * @return
+     * 		Shape of the size distribution.
+     * */
+    public double getSizeShape() {
+        return sizeShape;
+    }
+
+    /**
+     * Creates a SimulationConfig from properties. Recognized keys: routers, arrivalProb, bufferSize,
+     * maxPackets, minPacketSize, maxPacketSize, bandwidth, duration, seed, engine (tick, event or parallel)
+     * shards, queue (fifo, priority, spf, wfq or red), queueClasses, balancer (jsq, powerofd, roundrobin,
+     * hash or leastwork), choices, warmup (true or false), steadyPrecision, arrivals (bernoulli, poisson,
+     * onoff or mmpp), arrivalRate, onTime, offTime, mmppRates and mmppDwell (comma separated lists),
+     * sizes (uniform, pareto or lognormal) and sizeShape.
+     * Absent keys keep their default value.
+     *
+     * @param properties
+     * 		Settings of the simulation.
+     *
+     * @throws IllegalArgumentException
+     * 		when a value is invalid.
+     *
+     * @return
+     * 		SimulationConfig holding the settings.
+     * */
+    public static SimulationConfig fromProperties(Properties properties) throws IllegalArgumentException {
+        Builder builder = builder();
+        if(properties.getProperty("routers") != null)
+            builder.numIntRouters(parseInt(properties, "routers"));
+        if(properties.getProperty("arrivalProb") != null)
+            builder.arrivalProb(parseDouble(properties, "arrivalProb"));
+        if(properties.getProperty("bufferSize") != null)
+            builder.maxBufferSize(parseInt(properties, "bufferSize"));
+        if(properties.getProperty("maxPackets") != null)
+            builder.maxPackets(parseInt(properties, "maxPackets"));
+        if(properties.getProperty("minPacketSize") != null)
+            builder.minPacketSize(parseInt(properties, "minPacketSize"));
+        if(properties.getProperty("maxPacketSize") != null)
+            builder.maxPacketSize(parseInt(properties, "maxPacketSize"));
+        if(properties.getProperty("bandwidth") != null)
+            builder.bandwidth(parseInt(properties, "bandwidth"));
+        if(properties.getProperty("duration") != null)
+            builder.duration(parseInt(properties, "duration"));
+        if(properties.getProperty("seed") != null)
+            builder.seed(parseLong(properties, "seed"));
+        if(properties.getProperty("engine") != null)
+            builder.engine(SimulationEngine.parse(properties.getProperty("engine")));
+        if(properties.getProperty("shards") != null)
+            builder.shards(parseInt(properties, "shards"));
+        if(properties.getProperty("queue") != null)
+            builder.queue(QueueType.parse(properties.getProperty("queue")));
+        if(properties.getProperty("queueClasses") != null)
+            builder.queueClasses(parseInt(properties, "queueClasses"));
+        if(properties.getProperty("balancer") != null)
+            builder.balancer(BalancerType.parse(properties.getProperty("balancer")));
+        if(properties.getProperty("choices") != null)
+            builder.choices(parseInt(properties, "choices"));
+        if(properties.getProperty("warmup") != null)
+            builder.warmup(parseBoolean(properties, "warmup"));
+        if(properties.getProperty("steadyPrecision") != null)
+            builder.steadyPrecision(parseDouble(properties, "steadyPrecision"));
+        if(properties.getProperty("arrivals") != null)
+            builder.arrivals(ArrivalType.parse(properties.getProperty("arrivals")));
+        if(properties.getProperty("arrivalRate") != null)
+            builder.arrivalRate(parseDouble(properties, "arrivalRate"));
+        if(properties.getProperty("onTime") != null)
+            builder.onTime(parseDouble(properties, "onTime"));
+        if(properties.getProperty("offTime") != null)
+            builder.offTime(parseDouble(properties, "offTime"));
+        if(properties.getProperty("mmppRates") != null)
+            builder.mmppRates(parseDoubles(properties, "mmppRates"));
+        if(properties.getProperty("mmppDwell") != null)
+            builder.mmppDwell(parseDoubles(properties, "mmppDwell"));
+        if(properties.getProperty("sizes") != null)
+            builder.sizes(SizeType.parse(properties.getProperty("sizes")));
+        if(properties.getProperty("sizeShape") != null)
+            builder.sizeShape(parseDouble(properties, "sizeShape"));
+        return builder.build();
+    }
+
+    private static int parseInt(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+    }
+
+    private static long parseLong(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        try {
+            return Long.parseLong(value);
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+    }
+
+    private static boolean parseBoolean(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        if(value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"))
+            return Boolean.parseBoolean(value);
+        throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter true or false.");
+    }
+
+    private static double parseDouble(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        try {
+            return Double.parseDouble(value);
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+    }
+
+    private static double[] parseDoubles(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        if(value.isEmpty())
+            return new double[0];
+        String[] parts = value.split(",");
+        double[] numbers = new double[parts.length];
+        try {
+            for(int i = 0; i < parts.length; i++)
+                numbers[i] = Double.parseDouble(parts[i].trim());
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value +
+                    ". Please enter numbers separated by commas.");
+        }
+        return numbers;
+    }
+
+    private static String join(double[] numbers) {
+        StringBuilder joined = new StringBuilder();
+        for(int i = 0; i < numbers.length; i++)
+            joined.append((i == 0) ? "" : ",").append(numbers[i]);
+        return joined.toString();
+    }
+
+    /**
+     * Returns the string representation of the SimulationConfig.
+     *
+     * @return
+     * 		String representation of SimulationConfig.
+     * */
+    @Override
+    public String toString() {
+        return "routers=" + numIntRouters + " arrivalProb=" + arrivalProb + " bufferSize=" + maxBufferSize +
+                " maxPackets=" + maxPackets + " minPacketSize=" + minPacketSize + " maxPacketSize=" + maxPacketSize +
+                " bandwidth=" + bandwidth + " duration=" + duration + " seed=" + seed +
+                " engine=" + engine.name().toLowerCase() + " shards=" + shards + " queue=" + queue.name().toLowerCase() +
+                " queueClasses=" + queueClasses + " balancer=" + balancer.name().toLowerCase() + " choices=" + choices +
+                " warmup=" + warmup + " steadyPrecision=" + steadyPrecision +
+                " arrivals=" + arrivals.name().toLowerCase() + " arrivalRate=" + arrivalRate + " onTime=" + onTime +
+                " offTime=" + offTime + " mmppRates=" + join(mmppRates) + " mmppDwell=" + join(mmppDwell) +
+                " sizes=" + sizes.name().toLowerCase() + " sizeShape=" + sizeShape;
+    }
+
+    /**
+     * The Builder class collects the settings of a SimulationConfig and checks them when it is built.
+     */
+    public static final class Builder {
+        private int numIntRouters = 1, maxBufferSize = 10, maxPackets = Simulator.MAX_PACKETS,
+                minPacketSize = 100, maxPacketSize = 500, bandwidth = 1, duration = 100;
+        private double arrivalProb = 0.5;
+        private long seed = new RandomSource().nextLong();
+        private SimulationEngine engine = SimulationEngine.TICK;
+        private int shards = Runtime.getRuntime().availableProcessors();
+        private QueueType queue = QueueType.FIFO;
+        private int queueClasses = 4;
+        private BalancerType balancer = BalancerType.JSQ;
+        private int choices = 2;
+        private boolean warmup = false;
+        private double steadyPrecision = 0;
+        private ArrivalType arrivals = ArrivalType.BERNOULLI;
+        private double arrivalRate = 1, onTime = 10, offTime = 10;
+        private double[] mmppRates = {}, mmppDwell = {};
+        private SizeType sizes = SizeType.UNIFORM;
+        private double sizeShape = 1.2;
+
+        private Builder() {
+        }
+
+        /**
+         * Modifier. Sets the number of intermediate routers.
+         *
+         * @param numIntRouters
+         * 		Number of intermediate routers.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder numIntRouters(int numIntRouters) {
+            this.numIntRouters = numIntRouters;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the arrival probability.
+         *
+         * @param arrivalProb
+         * 		Probability in which a packet will arrive at dispatcher.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder arrivalProb(double arrivalProb) {
+            this.arrivalProb = arrivalProb;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the maximum size of each router.
+         *
+         * @param maxBufferSize
+         * 		Maximum size of each intermediate router.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder maxBufferSize(int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the maximum packets arriving in one simulation unit.
+         *
+         * @param maxPackets
+         * 		Maximum packets that can arrive at dispatcher in one simulation unit.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder maxPackets(int maxPackets) {
+            this.maxPackets = maxPackets;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the minimum packet size.
+         *
+         * @param minPacketSize
+         * 		Minimum packet size.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder minPacketSize(int minPacketSize) {
+            this.minPacketSize = minPacketSize;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the maximum packet size.
+         *
+         * @param maxPacketSize
+         * 		Maximum packet size.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder maxPacketSize(int maxPacketSize) {
+            this.maxPacketSize = maxPacketSize;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the bandwidth.
+         *
+         * @param bandwidth
+         * 		Maximum number of packets the destination can receive in one simulation unit.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder bandwidth(int bandwidth) {
+            this.bandwidth = bandwidth;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the duration.
+         *
+         * @param duration
+         * 		Number of simulation units.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder duration(int duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the seed.
+         *
+         * @param seed
+         * 		Seed of the random numbers deciding when packets arrive and how large they are.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the engine.
+         *
+         * @param engine
+         * 		Engine used to advance time.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder engine(SimulationEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the number of router shards.
+         *
+         * @param shards
+         * 		Number of threads aging the routers in the parallel engine.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder shards(int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the queue discipline.
+         *
+         * @param queue
+         * 		Queue discipline of the intermediate routers.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder queue(QueueType queue) {
+            this.queue = queue;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the number of size classes.
+         *
+         * @param queueClasses
+         * 		Number of size classes of the priority and wfq queue disciplines.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder queueClasses(int queueClasses) {
+            this.queueClasses = queueClasses;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the load balancer.
+         *
+         * @param balancer
+         * 		Load balancer of the dispatcher.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder balancer(BalancerType balancer) {
+            this.balancer = balancer;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the number of choices.
+         *
+         * @param choices
+         * 		Number of routers sampled for each packet by the powerofd load balancer.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder choices(int choices) {
+            this.choices = choices;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets whether the warm-up is detected.
+         *
+         * @param warmup
+         * 		true to find the end of the warm-up and report steady-state statistics.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder warmup(boolean warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the steady-state precision.
+         *
+         * @param steadyPrecision
+         * 		Relative half width of the steady-state service time interval at which the simulation ends,
+         * 		or 0 to always run the whole duration. Needs the warm-up to be detected.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder steadyPrecision(double steadyPrecision) {
+            this.steadyPrecision = steadyPrecision;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the traffic model.
+         *
+         * @param arrivals
+         * 		Traffic model generating the packets arriving at the dispatcher.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder arrivals(ArrivalType arrivals) {
+            this.arrivals = arrivals;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the arrival rate.
+         *
+         * @param arrivalRate
+         * 		Mean number of packets arriving in one simulation unit under the poisson traffic model, and
+         * 		during the bursts of the onoff traffic model.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder arrivalRate(double arrivalRate) {
+            this.arrivalRate = arrivalRate;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the mean length of a burst.
+         *
+         * @param onTime
+         * 		Mean number of simulation units of a burst of the onoff traffic model, at least 1.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder onTime(double onTime) {
+            this.onTime = onTime;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the mean length of a silence.
+         *
+         * @param offTime
+         * 		Mean number of simulation units between two bursts of the onoff traffic model, at least 1.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder offTime(double offTime) {
+            this.offTime = offTime;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the arrival rates of the mmpp traffic model.
+         *
+         * @param mmppRates
+         * 		Mean number of packets arriving in one simulation unit, for each state.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder mmppRates(double... mmppRates) {
+            this.mmppRates = mmppRates.clone();
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the mean dwell times of the mmpp traffic model.
+         *
+         * @param mmppDwell
+         * 		Mean number of simulation units spent in each state, at least 1.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder mmppDwell(double... mmppDwell) {
+            this.mmppDwell = mmppDwell.clone();
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the packet size distribution.
+         *
+         * @param sizes
+         * 		Distribution of the packet sizes.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder sizes(SizeType sizes) {
+            this.sizes = sizes;
+            return this;
+        }
+
+        /**
+         * Modifier. Sets the shape of the packet size distribution.
+         *
+         * @param sizeShape
+         * 		Shape of the pareto sizes, or standard deviation of the logarithm of the lognormal sizes.
+         *
+         * @return
+         * 		This Builder.
+         * */
+        public Builder sizeShape(double sizeShape) {
+            this.sizeShape = sizeShape;
+            return this;
+        }
+
+        /**
+         * Checks the settings and creates the SimulationConfig.
+         *
+         * @throws IllegalArgumentException
+         * 		when a number is negative, the arrival probability is out of the range [0, 1],
+         * 		the minimum packet size is larger than the maximum packet size, or is 0 with pareto or lognormal sizes.
+         *
+         * @return
+         * 		SimulationConfig holding the settings.
+         * */
+        public SimulationConfig build() throws IllegalArgumentException {
+            checkPositive("routers", numIntRouters);
+            checkPositive("bufferSize", maxBufferSize);
+            checkPositive("maxPackets", maxPackets);
+            checkPositive("minPacketSize", minPacketSize);
+            checkPositive("maxPacketSize", maxPacketSize);
+            checkPositive("bandwidth", bandwidth);
+            checkPositive("duration", duration);
+            if(arrivalProb < 0 || arrivalProb > 1 || Double.isNaN(arrivalProb))
+                throw new IllegalArgumentException("Invalid value for arrivalProb: " + arrivalProb +
+                        ". Please only enter a probability in range of [0,1].");
+            if(minPacketSize > maxPacketSize)
+                throw new IllegalArgumentException("Invalid packet sizes. minPacketSize is larger than maxPacketSize.");
+            if(engine == null)
+                throw new IllegalArgumentException("Invalid engine. Please enter tick, event or parallel.");
+            if(shards <= 0)
+                throw new IllegalArgumentException("Invalid value for shards: " + shards +
+                        ". Please enter at least 1.");
+            if(queue == null)
+                throw new IllegalArgumentException("Invalid queue. Please enter fifo, priority, spf, wfq or red.");
+            if(queueClasses <= 0)
+                throw new IllegalArgumentException("Invalid value for queueClasses: " + queueClasses +
+                        ". Please enter at least 1.");
+            if(balancer == null)
+                throw new IllegalArgumentException("Invalid balancer. " +
+                        "Please enter jsq, powerofd, roundrobin, hash or leastwork.");
+            if(choices <= 0)
+                throw new IllegalArgumentException("Invalid value for choices: " + choices +
+                        ". Please enter at least 1.");
+            if(!(steadyPrecision >= 0))
+                throw new IllegalArgumentException("Invalid value for steadyPrecision: " + steadyPrecision +
+                        ". Please enter a non-negative number.");
+            if(steadyPrecision > 0 && !warmup)
+                throw new IllegalArgumentException("steadyPrecision needs the warm-up to be detected. " +
+                        "Please add warmup=true.");
+            if(engine == SimulationEngine.EVENT && !queue.isFifo())
+                throw new IllegalArgumentException("The event engine needs a first in, first out queue. " +
+                        "Please use engine=tick with queue=" + queue.name().toLowerCase() + ".");
+            if(arrivals == null)
+                throw new IllegalArgumentException("Invalid arrivals. Please enter bernoulli, poisson, onoff or mmpp.");
+            checkRate("arrivalRate", arrivalRate);
+            checkDwell("onTime", onTime);
+            checkDwell("offTime", offTime);
+            if(arrivals == ArrivalType.MMPP && (mmppRates.length < 2 || mmppRates.length != mmppDwell.length))
+                throw new IllegalArgumentException("The mmpp arrivals need at least 2 states. " +
+                        "Please enter as many mmppRates as mmppDwell, separated by commas.");
+            for(double rate : mmppRates)
+                checkRate("mmppRates", rate);
+            for(double dwell : mmppDwell)
+                checkDwell("mmppDwell", dwell);
+            if(sizes == null)
+                throw new IllegalArgumentException("Invalid sizes. Please enter uniform, pareto or lognormal.");
+            if(!(sizeShape > 0) || Double.isInfinite(sizeShape))
+                throw new IllegalArgumentException("Invalid value for sizeShape: " + sizeShape +
+                        ". Please enter a positive number.");
+            if(sizes != SizeType.UNIFORM && minPacketSize < 1)
+                throw new IllegalArgumentException("The " + sizes.name().toLowerCase() + " sizes need a minPacketSize " +
+                        "of at least 1. Please enter a larger minPacketSize.");
+
+            return new SimulationConfig(this);
+        }
+
+        private static void checkRate(String key, double value) throws IllegalArgumentException {
+            if(!(value >= 0) || Double.isInfinite(value))
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + value +
+                        ". Please enter a non-negative number.");
+        }
+
+        private static void checkDwell(String key, double value) throws IllegalArgumentException {
+            if(!(value >= 1) || Double.isInfinite(value))
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + value +
+                        ". Please enter a number of at least 1.");
+        }
+
+        private static void checkPositive(String key, int value) throws IllegalArgumentException {
+            if(value < 0)
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + value +
+                        ". Please enter a positive integer.");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * The SimulationEngine enum lists the ways a Simulator can advance time.
+ * Every engine gives the same statistics for the same arriving packets.
+ *
+ * @author Zhen Wei Liao
+ **/
+public enum SimulationEngine {
+    //runs every simulation unit from 1 to the duration
+    TICK,
+    //jumps straight to the next simulation unit in which a packet arrives or becomes ready
+    EVENT,
+    //runs every simulation unit like TICK, aging the front packets of the routers on several threads
+    PARALLEL;
+
+    /**
+     * Returns the SimulationEngine with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the engine, "tick", "event" or "parallel".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any engine.
+     *
+     * @return
+     * 		SimulationEngine with the given name.
+     * */
+    public static SimulationEngine parse(String name) throws IllegalArgumentException {
+        for(SimulationEngine engine : values())
+            if(engine.name().equalsIgnoreCase(name.trim()))
+                return engine;
+
+        throw new IllegalArgumentException("Invalid engine: " + name + ". Please enter tick, event or parallel.");
+    }
+}
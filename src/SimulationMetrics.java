@@ -0,0 +1,417 @@
+/**
+ * The SimulationMetrics class collects the statistics of one simulation while it runs: long counters
+ * of arrived, delivered and dropped packets, a histogram of service times, per simulation unit
+ * delivery and drop counts, and a histogram of the queue depth of every intermediate router weighted
+ * by the number of simulation units the router spent at each depth. The depth histograms use the log
+ * buckets of LatencyHistogram, exact below 64 packets, so their memory grows with the logarithm of the
+ * router capacity rather than with the capacity.
+ *
+ * <p>The Simulator thread is the only writer. Other threads may read any value while the simulation
+ * runs; they see the statistics up to the last event recorded, without pausing the simulation.
+ * Nothing is allocated after construction.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class SimulationMetrics implements Checkpointable {
+
+    private final AtomicLong packetsArrived = new AtomicLong(), packetsDelivered = new AtomicLong(),
+            packetsDropped = new AtomicLong(), totalServiceTime = new AtomicLong(),
+            deliveredLastTick = new AtomicLong(), droppedLastTick = new AtomicLong();
+    private final LatencyHistogram serviceTimes = new LatencyHistogram(),
+            deliveriesPerTick = new LatencyHistogram(), dropsPerTick = new LatencyHistogram();
+
+    //time each router spent in each depth bucket of LatencyHistogram, up to the bucket of routerCapacity
+    private final int routerCapacity;
+    private final AtomicLongArray[] depthTime;
+    //depth of each router, read by other threads, and the simulation unit in which it last changed
+    private final AtomicIntegerArray depths;
+    private final int[] lastChange;
+    //packets held by all intermediate routers together
+    private long totalDepth;
+
+    //simulation unit being counted and its deliveries and drops so far
+    private int currentTick = 1;
+    private long deliveredThisTick, droppedThisTick;
+
+    /**
+     * Constructor creates empty SimulationMetrics for the given routers. The simulation starts at unit 1.
+     *
+     * @param numRouters
+     * 		Number of intermediate routers.
+     *
+     * @param routerCapacity
+     * 		Maximum size of each intermediate router.
+     * */
+    public SimulationMetrics(int numRouters, int routerCapacity) {
+        this.routerCapacity = routerCapacity;
+        depthTime = new AtomicLongArray[numRouters];
+        for(int router = 0; router < numRouters; router++)
+            depthTime[router] = new AtomicLongArray(LatencyHistogram.bucketOf(routerCapacity) + 1);
+        depths = new AtomicIntegerArray(numRouters);
+        lastChange = new int[numRouters];
+        Arrays.fill(lastChange, 1);
+    }
+
+    private static void add(AtomicLong counter, long delta) {
+        //single writer, so a release store is enough for readers
+        counter.lazySet(counter.get() + delta);
+    }
+
+    /**
+     * Closes the counts of every simulation unit before the given one.
+     *
+     * @param time
+     * 		Current simulation unit.
+     * */
+    private void advanceTo(int time) {
+        if(time <= currentTick)
+            return;
+        deliveriesPerTick.record(deliveredThisTick);
+        dropsPerTick.record(droppedThisTick);
+        deliveredLastTick.lazySet(deliveredThisTick);
+        droppedLastTick.lazySet(droppedThisTick);
+        //the event engine skips simulation units in which nothing happens
+        long skipped = (long) time - currentTick - 1;
+        deliveriesPerTick.record(0, skipped);
+        dropsPerTick.record(0, skipped);
+        if(skipped > 0) {
+            deliveredLastTick.lazySet(0);
+            droppedLastTick.lazySet(0);
+        }
+        deliveredThisTick = 0;
+        droppedThisTick = 0;
+        currentTick = time;
+    }
+
+    /**
+     * Records a packet arriving at the dispatcher.
+     * */
+    public void packetArrived() {
+        add(packetsArrived, 1);
+    }
+
+    /**
+     * Records a packet being dropped.
+     *
+     * @param time
+     * 		Current simulation unit.
+     * */
+    public void packetDropped(int time) {
+        advanceTo(time);
+        droppedThisTick++;
+        add(packetsDropped, 1);
+    }
+
+    /**
+     * Records a packet reaching its destination.
+     *
+     * @param time
+     * 		Current simulation unit.
+     *
+     * @param serviceTime
+     * 		Time the packet spent in the network.
+     * */
+    public void packetDelivered(int time, int serviceTime) {
+        advanceTo(time);
+        deliveredThisTick++;
+        add(packetsDelivered, 1);
+        add(totalServiceTime, serviceTime);
+        serviceTimes.record(serviceTime);
+    }
+
+    /**
+     * Records a change in the number of packets held by an intermediate router.
+     *
+     * @param router
+     * 		Position of the router.
+     *
+     * @param depth
+     * 		Number of packets the router holds now.
+     *
+     * @param time
+     * 		Current simulation unit.
+     * */
+    public void queueDepthChanged(int router, int depth, int time) {
+        AtomicLongArray buckets = depthTime[router];
+        int previous = depths.get(router), bucket = LatencyHistogram.bucketOf(previous);
+        buckets.lazySet(bucket, buckets.get(bucket) + (time - lastChange[router]));
+        totalDepth += depth - previous;
+        depths.lazySet(router, depth);
+        lastChange[router] = time;
+    }
+
+    /**
+     * Closes the statistics at the end of the simulation.
+     *
+     * @param duration
+     * 		Last simulation unit.
+     * */
+    public void finish(int duration) {
+        advanceTo(duration + 1);
+        for(int router = 0; router < depths.length(); router++)
+            queueDepthChanged(router, depths.get(router), duration + 1);
+    }
+
+    /**
+     * Writes the statistics, skipping the queue depths at which no time was spent.
+     *
+     * @param out
+     * 		Output receiving the statistics.
+     * */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        for(AtomicLong counter : new AtomicLong[]{packetsArrived, packetsDelivered, packetsDropped, totalServiceTime,
+                deliveredLastTick, droppedLastTick})
+            out.writeLong(counter.get());
+        serviceTimes.writeState(out);
+        deliveriesPerTick.writeState(out);
+        dropsPerTick.writeState(out);
+        out.writeInt(currentTick);
+        out.writeLong(deliveredThisTick);
+        out.writeLong(droppedThisTick);
+
+        int used = 0;
+        for(AtomicLongArray buckets : depthTime)
+            for(int bucket = 0; bucket < buckets.length(); bucket++)
+                if(buckets.get(bucket) != 0)
+                    used++;
+        out.writeInt(used);
+        for(int router = 0; router < depthTime.length; router++) {
+            for(int bucket = 0; bucket < depthTime[router].length(); bucket++) {
+                if(depthTime[router].get(bucket) != 0) {
+                    out.writeInt(router);
+                    out.writeShort(bucket);
+                    out.writeLong(depthTime[router].get(bucket));
+                }
+            }
+        }
+        for(int router = 0; router < depths.length(); router++) {
+            out.writeInt(depths.get(router));
+            out.writeInt(lastChange[router]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        for(AtomicLong counter : new AtomicLong[]{packetsArrived, packetsDelivered, packetsDropped, totalServiceTime,
+                deliveredLastTick, droppedLastTick})
+            counter.lazySet(in.readLong());
+        serviceTimes.readState(in);
+        deliveriesPerTick.readState(in);
+        dropsPerTick.readState(in);
+        currentTick = in.readInt();
+        deliveredThisTick = in.readLong();
+        droppedThisTick = in.readLong();
+
+        for(AtomicLongArray buckets : depthTime)
+            for(int bucket = 0; bucket < buckets.length(); bucket++)
+                buckets.lazySet(bucket, 0);
+        int used = in.readInt();
+        for(int i = 0; i < used; i++) {
+            int router = in.readInt(), bucket = in.readUnsignedShort();
+            if(router < 0 || router >= depthTime.length || bucket >= depthTime[router].length())
+                throw new IOException("Invalid queue depth entry: router " + router + ", bucket " + bucket + ".");
+            depthTime[router].lazySet(bucket, in.readLong());
+        }
+        totalDepth = 0;
+        for(int router = 0; router < depths.length(); router++) {
+            int depth = in.readInt();
+            if(depth < 0 || depth > routerCapacity)
+                throw new IOException("Invalid queue depth in checkpoint: " + depth + ".");
+            depths.lazySet(router, depth);
+            lastChange[router] = in.readInt();
+            totalDepth += depth;
+        }
+    }
+
+    /**
+     * Returns the number of packets that arrived at the dispatcher.
+     *
+     * @return
+     * 		Number of arrived packets.
+     * */
+    public long getPacketsArrived() {
+        return packetsArrived.get();
+    }
+
+    /**
+     * Returns the number of packets that reached the destination.
+     *
+     * @return
+     * 		Number of delivered packets.
+     * */
+    public long getPacketsDelivered() {
+        return packetsDelivered.get();
+    }
+
+    /**
+     * Returns the number of packets dropped due to a congested network.
+     *
+     * @return
+     * 		Number of dropped packets.
+     * */
+    public long getPacketsDropped() {
+        return packetsDropped.get();
+    }
+
+    /**
+     * Returns the sum of the total time each delivered packet is in the network.
+     *
+     * @return
+     * 		Total service time.
+     * */
+    public long getTotalServiceTime() {
+        return totalServiceTime.get();
+    }
+
+    /**
+     * Returns the average time each delivered packet is in the network.
+     *
+     * @return
+     * 		Average service time, or 0 if no packet was delivered.
+     * */
+    public double getAverageServiceTime() {
+        long delivered = packetsDelivered.get();
+        return delivered == 0 ? 0 : (double) totalServiceTime.get() / delivered;
+    }
+
+    /**
+     * Returns the histogram of the time each delivered packet is in the network.
+     *
+     * @return
+     * 		Histogram of service times.
+     * */
+    public LatencyHistogram getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /**
+     * Returns the histogram of the number of packets delivered in each finished simulation unit.
+     *
+     * @return
+     * 		Histogram of deliveries per simulation unit.
+     * */
+    public LatencyHistogram getDeliveriesPerTick() {
+        return deliveriesPerTick;
+    }
+
+    /**
+     * Returns the histogram of the number of packets dropped in each finished simulation unit.
+     *
+     * @return
+     * 		Histogram of drops per simulation unit.
+     * */
+    public LatencyHistogram getDropsPerTick() {
+        return dropsPerTick;
+    }
+
+    /**
+     * Returns the number of packets delivered in the last finished simulation unit.
+     *
+     * @return
+     * 		Deliveries in the last simulation unit.
+     * */
+    public long getDeliveredLastTick() {
+        return deliveredLastTick.get();
+    }
+
+    /**
+     * Returns the number of packets dropped in the last finished simulation unit.
+     *
+     * @return
+     * 		Drops in the last simulation unit.
+     * */
+    public long getDroppedLastTick() {
+        return droppedLastTick.get();
+    }
+
+    /**
+     * Returns the number of intermediate routers.
+     *
+     * @return
+     * 		Number of routers.
+     * */
+    public int getNumRouters() {
+        return depths.length();
+    }
+
+    /**
+     * Returns the number of packets an intermediate router holds now.
+     *
+     * @param router
+     * 		Position of the router.
+     *
+     * @return
+     * 		Queue depth of the router.
+     * */
+    public int getDepth(int router) {
+        return depths.get(router);
+    }
+
+    /**
+     * Returns the number of packets all intermediate routers hold now. Read by the Simulator thread only.
+     *
+     * @return
+     * 		Sum of the queue depths.
+     * */
+    public long getTotalDepth() {
+        return totalDepth;
+    }
+
+    /**
+     * Returns the number of simulation units a router spent holding the given number of packets,
+     * up to its last change of depth. Depths of 64 packets and more share their time with the other
+     * depths of their bucket, less than about 3% away.
+     *
+     * @param router
+     * 		Position of the router.
+     *
+     * @param depth
+     * 		Number of packets, in the range [0, router capacity].
+     *
+     * @return
+     * 		Simulation units spent in the bucket of the depth.
+     * */
+    public long getTimeAtDepth(int router, int depth) {
+        return depthTime[router].get(LatencyHistogram.bucketOf(depth));
+    }
+
+    /**
+     * Returns the smallest depth a router stayed at or below for the given percentage of its time.
+     * From 64 packets on, the depth is the largest of its bucket.
+     *
+     * @param router
+     * 		Position of the router.
+     *
+     * @param percentile
+     * 		Percentage in the range [0, 100].
+     *
+     * @return
+     * 		Queue depth at the percentile, or 0 if no time was recorded.
+     * */
+    public int getDepthAtPercentile(int router, double percentile) {
+        AtomicLongArray buckets = depthTime[router];
+        long total = 0;
+        for(int bucket = 0; bucket < buckets.length(); bucket++)
+            total += buckets.get(bucket);
+        if(total == 0)
+            return 0;
+
+        double rank = Math.min(percentile, 100) / 100 * total;
+        long seen = 0;
+        for(int bucket = 0; bucket < buckets.length(); bucket++) {
+            seen += buckets.get(bucket);
+            if(seen >= rank && seen > 0)
+                return (int) Math.min(LatencyHistogram.highestValueOf(bucket), routerCapacity);
+        }
+        return routerCapacity;
+    }
+}
@@ -1,362 +1,1056 @@
-/**
- * The Simulator class implement a main method that asks for user inputs and
- * output the process that indicates how packets are being sent through the network.
- *
- * @author Zhen Wei Liao
- **/
-
-import java.util.Scanner;
-import java.util.LinkedList;
-
-public class Simulator{
-    private final Router dispatcher = new Router();
-    private final LinkedList<Router> routers = new LinkedList<>();
-    private int totalServiceTime = 0, totalPacketsArrived = 0, packetsDropped = 0, numIntRouters,
-            minPacketSize, maxPacketSize, bandWidth, duration;
-    private double arrivalProb;
-
-    private static Scanner input;
-    private static boolean run;
-
-    //maximum packets that can arrive at dispatcher in one simulation unit
-    public static int MAX_PACKETS = 3;
-
-    /**
-     * Constructor creates a Simulator Object that takes the default value of the member variables.
-     * */
-    public Simulator(){
-    }
-
-    /**
-     * Constructor creates a Simulator object with specified values for the member
-     * variables
-     *
-     * @param numIntRouters
-     * 		Number of intermediate routers.
-     *
-     * @param arrivalProb
-     * 		Probability in which a packet will arrive at dispatcher.
-     *
-     * @param minPacketSize
-     * 		Minimum packet size.
-     *
-     * @param maxPacketSize
-     * 		Maximum packet size.
-     *
-     * @param bandwidth
-     * 		Destination can receive a maximum of <code>bandwidth</code> Packets at a given simulation unit.
-     *
-     * @param duration
-     * 		Number of simulation units.
-     * */
-    public Simulator(int numIntRouters, double arrivalProb, int minPacketSize,
-                     int maxPacketSize, int bandwidth, int duration) {
-        this.numIntRouters = numIntRouters;
-        this.arrivalProb = arrivalProb;
-        this.minPacketSize = minPacketSize;
-        this.maxPacketSize = maxPacketSize;
-        this.bandWidth = bandwidth;
-        this.duration = duration;
-    }
-
-    /**
-     * Returns the sum of the total time each packet is in the network
-     *
-     * @return
-     * 		Sum of the total time each packet is in the network.
-     * */
-    public int getTotalServiceTime() {
-        return totalServiceTime;
-    }
-
-    /**
-     * Returns the total number of packets that has been successfully forwarded to the
-     * destination.
-     *
-     *  @return
-     *  	Total number of packets that has been successfully forwarded to the destination.
-     * */
-    public int getTotalPacketsArrived() {
-        return totalPacketsArrived;
-    }
-
-    /**
-     * Returns the number of packets that have been dropped due to a congested network.
-     *
-     * @return
-     * 		Number of packets that have been dropped due to a congested network.
-     * */
-    public int getPacketsDropped() {
-        return packetsDropped;
-    }
-
-    /**
-     * Returns a random number in the range [minVal, maxVal]
-     *
-     * @param minVal
-     * 		the smallest possible integer that can be generated
-     *
-     * @param maxVal
-     * 		the largest possible integer that can be generated
-     *
-     * @return
-     * 		random integer between minVal and maxVal, inclusively
-     * */
-    public static int randInt(int minVal, int maxVal) {
-        return (int)(Math.random() * (maxVal - minVal + 1) + minVal);
-    }
-
-    /**
-     * Generates Packets based on arrival probability and records all packets that arrive at dispatcher.
-     *
-     * @param timeArrived
-     *      Time in which the packets arrived at the dispatcher.
-     */
-    private void packetArriving(int timeArrived){
-        for(int i = 1; i <= MAX_PACKETS; i++){
-            if(Math.random() < arrivalProb){
-                int size = randInt(minPacketSize, maxPacketSize), id = Packet.getPacketCount() + 1;
-                //Time it takes the packet to reach the destination = packetSize / 100
-                Packet packet = new Packet(size, timeArrived, size/100);
-                Packet.setPacketCount(id);
-                packet.setId(id);
-                dispatcher.enqueue(packet);
-                System.out.println("Packet " + id + " arrives at dispatcher with size " + size + ".");
-            }
-        }
-        if(dispatcher.isEmpty())
-            System.out.println("No packets arrived.");
-    }
-
-    /**
-     * Dispatcher sends all arrived packets to an available Router. If all Routers are full, then the
-     * remaining packets will be dropped.
-     */
-    private void sendToRouters() throws EmptyBufferException {
-        while(!dispatcher.isEmpty()) {
-            Packet packetSent, packetDropped;
-            try{
-                int routerIndex = Router.sendPacketTo(routers);
-                packetSent = dispatcher.dequeue();
-                routers.get(routerIndex).enqueue(packetSent);
-                System.out.println("Packet "+ packetSent.getId()+ " sent to Router "+
-                        (routerIndex +1) +".");
-            } catch(FullBufferException e) {
-                packetDropped = dispatcher.dequeue();
-                packetsDropped += 1;
-                System.out.println("Network is congested. Packet "+ packetDropped.getId() +
-                        " is dropped.");
-            }
-        }
-    }
-
-    /**
-     * Records any packet that is ready to be sent to the destination.
-     *
-     * @param recordQueue
-     *      A temporary Router that records all packets that are ready to be sent.
-     */
-    private void recordPackets(Router recordQueue){
-        for(Router router : routers)
-            if(!(router.isEmpty()) && router.peek().getTimeToDest() == 0)
-                recordQueue.enqueue(router.peek());
-    }
-
-    /**
-     * Sent all packets that are ready to destination.
-     * If the number of packets being sent has reached the size of bandWidth,
-     * any remaining packets will stay in the router and wait for the next simulation unit.
-     *
-     * @param packetsToBeSent
-     *      A temporary Router that keeps tracks of which packets should be sent to destination.
-     *
-     * @param simulationUnit
-     *      Current simulation unit.
-     */
-    private void sendPacketToDestination(Router packetsToBeSent, int simulationUnit) throws EmptyBufferException {
-        int count = 0;
-        while(!(packetsToBeSent.isEmpty()) && count < bandWidth){
-            Packet packetSent = packetsToBeSent.dequeue(), arrivedPacket;
-            for(Router router : routers){
-                if(!(router.isEmpty()) && router.peek().equals(packetSent)){
-                    arrivedPacket = router.dequeue();
-                    totalPacketsArrived++;
-                    int serviceTime = simulationUnit - arrivedPacket.getTimeArrived();
-                    totalServiceTime += serviceTime;
-                    System.out.println("Packet " + arrivedPacket.getId() +
-                            " has successfully reached its destination: +" + serviceTime);
-                    count++;
-                }
-            }
-        }
-    }
-
-    /**
-     * Display information of the intermediate Routers and decrement the time to destination of all packets
-     * that are in the front.
-     */
-    private void packetsInRouters() {
-        for(int i = 1; i <= routers.size(); i++) {
-            System.out.println("R" + i + ": " + routers.get(i - 1));
-        }
-
-        for(Router router : routers) {
-            if(router != null && !(router.isEmpty()) && router.peek().getTimeToDest() != 0) {
-                assert router.peek() != null;
-                router.peek().setTimeToDest(router.get(0).getTimeToDest() - 1);
-            }
-        }
-    }
-
-    /**
-     * Run and output the process that indicates how the packets are being sent through the network.
-     *
-     * @return
-     * 		Average time each packet is in the network.
-     * */
-    public double simulate() throws EmptyBufferException {
-        for(int i = 0; i < numIntRouters; i++)
-            routers.add(new Router());
-
-        for(int i = 1; i <= duration; i++){
-            System.out.println("\nTime: " + i);
-            packetArriving(i);
-            sendToRouters();
-            /*
-            Creates a temp Router or queue that records all packets that are ready
-            to be sent to destination. This is created for the purpose of fairness.
-             */
-            Router packetsToBeSent = new Router();
-            recordPackets(packetsToBeSent);
-            sendPacketToDestination(packetsToBeSent, i);
-            packetsInRouters();
-        }
-        Packet.setPacketCount(0);
-        if(totalPacketsArrived != 0)
-            return ((double) totalServiceTime) / totalPacketsArrived;
-
-        System.out.println("\nNo packets have arrived at destination during the simulation.");
-        return 0;
-    }
-
-    /**
-     * Checks if the user is entering anything but an integer and if the entered integer is positive.
-     *
-     * @param prompt
-     * 		Prompt for user input.
-     *
-     * @throws IllegalArgumentException
-     * 		when input is a negative integer.
-     *
-     * @return
-     * 		User input as an integer
-     * */
-    public static int inputInt(String prompt) throws IllegalArgumentException {
-        System.out.print(prompt);
-        int intInput = Integer.parseInt(input.nextLine());
-        if(intInput < 0)
-            throw new IllegalArgumentException("Please enter a positive integer.\n");
-
-        return intInput;
-    }
-
-    /**
-     * Checks if the user enters a number or not and if the entered number is in the range [0, 1]
-     *
-     * @return User input as a double.
-     * @throws IllegalArgumentException when user input is out of range.
-     */
-    private static double inputProbability() throws IllegalArgumentException {
-        System.out.print("\nEnter the arrival probability of a packet: ");
-        double prob = Double.parseDouble(input.nextLine());
-        if(prob < 0 || prob > 1)
-            throw new IllegalArgumentException("Invalid input. Please only enter a " +
-                    "probability in range of [0,1].\n");
-
-        return prob;
-    }
-
-    /**
-     * Returns a Simulator based on user input.
-     *
-     * @return
-     *      A Simulator based on user input.
-     */
-    private static Simulator generateSimulator(){
-        int numIntRouters, minPacketSize, maxPacketSize, bandwidth, duration;
-        double probability;
-        numIntRouters = inputInt("Enter the number of intermediate routers: ");
-        probability = inputProbability();
-        Router.setMaxBufferSize(inputInt("\nEnter the maximum buffer size of a router: "));
-        MAX_PACKETS = inputInt("\nEnter the maximum number of packets that can arrive at dispatcher: ");
-        minPacketSize = inputInt("\nEnter the minimum size of a packet (Recommend size of 100): ");
-        maxPacketSize = inputInt("\nEnter the maximum size of a packet (Recommend size > 100): ");
-        bandwidth = inputInt("\nEnter the bandwidth size: ");
-        duration = inputInt("\nEnter the simulation duration: ");
-
-        return new Simulator(numIntRouters, probability, minPacketSize, maxPacketSize, bandwidth, duration);
-    }
-
-    /**
-     * Activates the Simulator and display appropriate statistics.
-     *
-     * @param simulator
-     *      Simulator being activate.
-     *
-     */
-    private static void simulate(Simulator simulator) throws EmptyBufferException {
-        double average = simulator.simulate();
-        System.out.println("\n\nSimulation ending...");
-        System.out.println("Total service time: " + simulator.getTotalServiceTime());
-        System.out.println("Total packets served: " + simulator.getTotalPacketsArrived());
-        System.out.println("Average service time per packet: " + average);
-        System.out.println("Total packets dropped: " + simulator.getPacketsDropped());
-    }
-
-    /**
-     * Ask the user if he/she want to create another simulation. If not, terminate the program.
-     */
-    private static void exit(){
-        System.out.print("\nDo you want to try another simulation? [y|n]: ");
-        String cont = input.nextLine().toLowerCase().trim();
-
-        while(!(cont.equals("y") || cont.equals("n"))) {
-            System.out.print("\nPlease enter only y or n: ");
-            cont = input.nextLine().toLowerCase().trim();
-        }
-
-        if(cont.equals("n")){
-            run = false;
-            System.out.println("\nProgram terminating successfully...");
-            input.close();
-        }
-    }
-
-    /**
-     * The main method will ask for user input and create a Simulator object based on the given information.
-     * Later it calls the simulate() method on the Simulator object
-     * and prints out the total service time, total packets served, average service time
-     * per packet, and total packets that are dropped during the simulation.
-     * */
-    public static void main(String[] args) {
-        input = new Scanner(System.in);
-        run = true;
-        Simulator simulator;
-        while(run){
-            System.out.println("Starting simulator...\n");
-            try{
-                simulator = generateSimulator();
-                simulate(simulator);
-                exit();
-                System.out.println();
-            } catch(NumberFormatException e){
-                System.out.println("Error: Please enter a number.\n");
-            } catch(EmptyBufferException | IllegalArgumentException e) {
-                System.out.println(e.getMessage());
-            }
-        }
-    }
-
-
-}
-
+/**
+ * The Simulator class implement a main method that asks for user inputs and
+ * output the process that indicates how packets are being sent through the network.
+ *
+ * @author Zhen Wei Liao
+ **/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class Simulator{
+    //every packet in the network, referenced by slot from the dispatcher and the routers
+    private final PacketStore store;
+    private final Router dispatcher;
+    //Router chosen for each packet of the dispatcher in the current simulation unit
+    private final int[] dispatchTargets;
+    private final ArrayList<Router> routers = new ArrayList<>();
+    private RouterLoadIndex loadIndex;
+    //chooses the Router of each packet of the dispatcher
+    private LoadBalancer balancer;
+    //routers whose front packet is ready to be sent to destination, and routers that become ready while sending
+    private ReadySet readyRouters;
+    private int[] deferredReady;
+    private int deferredCount;
+    //routers whose front packet becomes ready later, used by the event engine
+    private DueTimeQueue dueRouters;
+    //front packet of every router and the simulation unit whose aging brings its time to destination to 0,
+    //or -1 when nothing is aging; the time to destination held in the store is only exact when synced
+    private int[] headSlot, headDue;
+    //simulation unit being aged, read by the shards
+    private int agingTick;
+    //routers aged on separate threads by the parallel engine, and the routers each shard found ready
+    private RouterShards shards;
+    private int[][] shardReady;
+    private int[] shardReadyCount;
+    private final ArrivalSource arrivals;
+    private final SimulationConfig config;
+    private final SimulationEngine engine;
+    private final int numIntRouters, bandWidth, duration;
+    private final SimulationMetrics metrics;
+    //live view of the run for JMX clients, Flight Recorder events, and the dispatcher backlog they report
+    private final SimulatorMonitor monitor;
+    private FlightEvents flightEvents;
+    private int dispatchBacklog;
+    //receives a row for every packet delivered or dropped and the queue depths, when results are exported
+    private ResultsWriter results;
+    //finds the end of the warm-up when the settings ask for it, and the last simulation unit run
+    private WarmupDetector warmup;
+    private int endTick;
+    //number of packets created by this simulation, used to assign an ID to a new packet
+    private int packetCount = 0;
+    private EventSink events = new PrintEventSink(System.out, EventLevel.PACKET);
+    //first simulation unit to run, later than 1 when resumed from a checkpoint
+    private int startTick = 1;
+    //file receiving a checkpoint every checkpointEvery simulation units, and the unit of the next one
+    private String checkpointPath;
+    private int checkpointEvery, nextCheckpoint;
+
+    private static final long CHECKPOINT_MAGIC = 0x504b54534e415031L; //"PKTSNAP1"
+
+    //default maximum packets that can arrive at dispatcher in one simulation unit
+    public static final int MAX_PACKETS = 3;
+
+    /**
+     * Constructor creates a Simulator Object that takes the default value of the member variables.
+     * */
+    public Simulator(){
+        this(0, 0, 0, 0, 0, 0, new RandomSource().nextLong(), 0);
+    }
+
+    /**
+     * Constructor creates a Simulator object with specified values for the member
+     * variables. The intermediate routers hold the default number of packets of SimulationConfig.
+     *
+     * @param numIntRouters
+     * 		Number of intermediate routers.
+     *
+     * @param arrivalProb
+     * 		Probability in which a packet will arrive at dispatcher.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param bandwidth
+     * 		Destination can receive a maximum of <code>bandwidth</code> Packets at a given simulation unit.
+     *
+     * @param duration
+     * 		Number of simulation units.
+     * */
+    public Simulator(int numIntRouters, double arrivalProb, int minPacketSize,
+                     int maxPacketSize, int bandwidth, int duration) {
+        this(numIntRouters, arrivalProb, minPacketSize, maxPacketSize, bandwidth, duration,
+                new RandomSource().nextLong());
+    }
+
+    /**
+     * Constructor creates a Simulator object with specified values for the member
+     * variables. Simulators created with the same values and seed produce the same results.
+     * The intermediate routers hold the default number of packets of SimulationConfig.
+     *
+     * @param numIntRouters
+     * 		Number of intermediate routers.
+     *
+     * @param arrivalProb
+     * 		Probability in which a packet will arrive at dispatcher.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param bandwidth
+     * 		Destination can receive a maximum of <code>bandwidth</code> Packets at a given simulation unit.
+     *
+     * @param duration
+     * 		Number of simulation units.
+     *
+     * @param seed
+     * 		Seed of the random numbers deciding when packets arrive and how large they are.
+     * */
+    public Simulator(int numIntRouters, double arrivalProb, int minPacketSize,
+                     int maxPacketSize, int bandwidth, int duration, long seed) {
+        this(SimulationConfig.builder().numIntRouters(numIntRouters).arrivalProb(arrivalProb)
+                .minPacketSize(minPacketSize).maxPacketSize(maxPacketSize)
+                .bandwidth(bandwidth).duration(duration).seed(seed).build());
+    }
+
+    /**
+     * Constructor creates a Simulator object with specified values for the member
+     * variables. Simulators created with the same values and seed produce the same results.
+     *
+     * @param numIntRouters
+     * 		Number of intermediate routers.
+     *
+     * @param arrivalProb
+     * 		Probability in which a packet will arrive at dispatcher.
+     *
+     * @param minPacketSize
+     * 		Minimum packet size.
+     *
+     * @param maxPacketSize
+     * 		Maximum packet size.
+     *
+     * @param bandwidth
+     * 		Destination can receive a maximum of <code>bandwidth</code> Packets at a given simulation unit.
+     *
+     * @param duration
+     * 		Number of simulation units.
+     *
+     * @param seed
+     * 		Seed of the random numbers deciding when packets arrive and how large they are.
+     *
+     * @param maxBufferSize
+     * 		Maximum number of packets each intermediate router holds.
+     * */
+    public Simulator(int numIntRouters, double arrivalProb, int minPacketSize,
+                     int maxPacketSize, int bandwidth, int duration, long seed, int maxBufferSize) {
+        this(SimulationConfig.builder().numIntRouters(numIntRouters).arrivalProb(arrivalProb)
+                .maxBufferSize(maxBufferSize).minPacketSize(minPacketSize).maxPacketSize(maxPacketSize)
+                .bandwidth(bandwidth).duration(duration).seed(seed).build());
+    }
+
+    /**
+     * Constructor creates a Simulator object from the given settings. Nothing is shared with other
+     * Simulators, so any number of them can run at the same time.
+     *
+     * @param config
+     * 		Settings of the simulation.
+     * */
+    public Simulator(SimulationConfig config) {
+        this(config, config.getArrivals().create(config, new RandomSource(config.getSeed())));
+    }
+
+    /**
+     * Constructor creates a Simulator object whose packets come from the given ArrivalSource, such as a
+     * replayed trace, instead of the arrival probability and packet sizes of the settings.
+     *
+     * @param config
+     * 		Settings of the simulation. maxPackets must be at least the number of packets arriving in one
+     * 		simulation unit.
+     *
+     * @param arrivals
+     * 		Packets arriving at the dispatcher.
+     * */
+    public Simulator(SimulationConfig config, ArrivalSource arrivals) {
+        this.config = config;
+        this.arrivals = arrivals;
+        this.numIntRouters = config.getNumIntRouters();
+        this.bandWidth = config.getBandwidth();
+        this.duration = config.getDuration();
+        this.engine = config.getEngine();
+
+        long inFlight = config.getMaxPackets() + (long) numIntRouters * config.getMaxBufferSize();
+        store = new PacketStore((int) Math.min(inFlight, 1 << 20));
+        //the dispatcher never holds more than the packets arriving in one simulation unit
+        dispatcher = new Router(config.getMaxPackets(), store);
+        dispatchTargets = new int[config.getMaxPackets()];
+        metrics = new SimulationMetrics(numIntRouters, config.getMaxBufferSize());
+        monitor = new SimulatorMonitor(metrics);
+        flightEvents = new FlightEvents(metrics, 1000, 1);
+    }
+
+    /**
+     * Returns the sum of the total time each packet is in the network
+     *
+     * @return
+     * 		Sum of the total time each packet is in the network.
+     * */
+    public long getTotalServiceTime() {
+        return metrics.getTotalServiceTime();
+    }
+
+    /**
+     * Returns the total number of packets that has been successfully forwarded to the
+     * destination.
+     *
+     *  @return
+     *  	Total number of packets that has been successfully forwarded to the destination.
+     * */
+    public long getTotalPacketsArrived() {
+        return metrics.getPacketsDelivered();
+    }
+
+    /**
+     * Returns the number of packets that have been dropped due to a congested network.
+     *
+     * @return
+     * 		Number of packets that have been dropped due to a congested network.
+     * */
+    public long getPacketsDropped() {
+        return metrics.getPacketsDropped();
+    }
+
+    /**
+     * Returns the statistics of this Simulator. They may be read from another thread while the
+     * simulation runs.
+     *
+     * @return
+     * 		SimulationMetrics of this Simulator.
+     * */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the JMX view of this Simulator. It is updated while the simulation runs and can be
+     * published with {@link SimulatorMonitor#register(String)}.
+     *
+     * @return
+     * 		SimulatorMonitor of this Simulator.
+     * */
+    public SimulatorMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Returns the warm-up detection of this Simulator.
+     *
+     * @return
+     * 		WarmupDetector of this Simulator, or null when the settings do not ask for it.
+     * */
+    public WarmupDetector getWarmup() {
+        buildNetwork();
+        return warmup;
+    }
+
+    /**
+     * Returns the last simulation unit of the finished simulation, earlier than the duration when it
+     * ended once the steady state was known precisely enough.
+     *
+     * @return
+     * 		Last simulation unit run.
+     * */
+    public int getEndTick() {
+        return endTick;
+    }
+
+    /**
+     * Modifier. Makes this Simulator export a row for every packet delivered or dropped, and the queue
+     * depths, to a ResultsWriter. The caller closes the ResultsWriter after the simulation.
+     *
+     * @param results
+     * 		ResultsWriter receiving the rows, or null to stop exporting.
+     * */
+    public void setResults(ResultsWriter results) {
+        this.results = results;
+    }
+
+    /**
+     * Modifier. Changes how often this Simulator emits Flight Recorder events while a recording is running.
+     * By default one TickEvent covers 1000 simulation units and every drop is recorded.
+     *
+     * @param tickEvery
+     * 		Number of simulation units covered by one TickEvent.
+     *
+     * @param dropEvery
+     * 		Number of drops for which one DropEvent is recorded.
+     *
+     * @throws IllegalArgumentException
+     * 		when tickEvery or dropEvery is not positive.
+     * */
+    public void setFlightEvents(int tickEvery, int dropEvery) throws IllegalArgumentException {
+        flightEvents = new FlightEvents(metrics, tickEvery, dropEvery);
+    }
+
+    /**
+     * Returns the EventSink that receives everything this Simulator reports.
+     *
+     * @return
+     * 		EventSink of this Simulator.
+     * */
+    public EventSink getEventSink() {
+        return events;
+    }
+
+    /**
+     * Modifier. Changes where this Simulator reports arriving, sent, dropped and delivered packets.
+     *
+     * @param events
+     * 		EventSink receiving the reports.
+     * */
+    public void setEventSink(EventSink events) {
+        this.events = events;
+    }
+
+    /**
+     * Returns the settings of this Simulator.
+     *
+     * @return
+     * 		SimulationConfig of this Simulator.
+     * */
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the seed of the random numbers of this Simulator.
+     *
+     * @return
+     * 		Seed of this Simulator.
+     * */
+    public long getSeed() {
+        return config.getSeed();
+    }
+
+    /**
+     * Returns the engine used to advance time.
+     *
+     * @return
+     * 		SimulationEngine of this Simulator.
+     * */
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Modifier. Makes this Simulator save its state to a file at the end of every <code>every</code>
+     * simulation units, replacing the previous checkpoint. The file can be given to {@link #restore(String)}.
+     *
+     * @param path
+     * 		Path of the checkpoint file, or null to stop taking checkpoints.
+     *
+     * @param every
+     * 		Number of simulation units between checkpoints.
+     *
+     * @throws IllegalArgumentException
+     * 		when every is not positive, or the arrivals of this Simulator cannot be saved.
+     * */
+    public void setCheckpoint(String path, int every) throws IllegalArgumentException {
+        if(path != null && every <= 0)
+            throw new IllegalArgumentException("Invalid checkpoint interval: " + every + ". Please enter a positive integer.");
+        if(path != null && !(arrivals instanceof Checkpointable))
+            throw new IllegalArgumentException("The arrivals of this simulation cannot be checkpointed.");
+        checkpointPath = path;
+        checkpointEvery = every;
+    }
+
+    /**
+     * Returns the settings that must match for a checkpoint to be restored. The duration may be changed
+     * to run longer, and the number of shards does not change the results.
+     *
+     * @return
+     * 		Settings of this Simulator without the duration and the shards.
+     * */
+    private String checkpointSettings() {
+        return config.toBuilder().duration(0).shards(1).build().toString();
+    }
+
+    /**
+     * Saves the state of the simulation at the end of a simulation unit: the packets in every Router,
+     * the Routers waiting to send, the statistics and the state of the arrivals. Only the Routers holding
+     * packets are written, so the size of the file follows the number of packets in the network.
+     * The file is replaced at once, so a crash never leaves a partial checkpoint.
+     *
+     * @param nextTick
+     *      First simulation unit that has not run yet.
+     */
+    private void checkpoint(int nextTick) {
+        syncHeads(nextTick - 1);
+        String temporary = checkpointPath + ".tmp";
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary),
+                1 << 16))) {
+            out.writeLong(CHECKPOINT_MAGIC);
+            out.writeUTF(checkpointSettings());
+            out.writeInt(nextTick);
+            out.writeInt(packetCount);
+
+            int used = 0;
+            for(Router router : routers)
+                if(!router.isEmpty())
+                    used++;
+            out.writeInt(used);
+            for(int i = 0; i < routers.size(); i++) {
+                Router router = routers.get(i);
+                if(router.isEmpty())
+                    continue;
+                out.writeInt(i);
+                out.writeInt(router.size());
+                for(int j = 0; j < router.size(); j++) {
+                    int slot = router.getSlot(j);
+                    out.writeInt(store.getId(slot));
+                    out.writeInt(store.getPacketSize(slot));
+                    out.writeInt(store.getTimeArrived(slot));
+                    out.writeInt(store.getTimeToDest(slot));
+                }
+            }
+            for(Router router : routers)
+                router.getQueue().writeState(out);
+            balancer.writeState(out);
+            readyRouters.writeState(out);
+            dueRouters.writeState(out);
+            metrics.writeState(out);
+            if(warmup != null)
+                warmup.writeState(out);
+            ((Checkpointable) arrivals).writeState(out);
+        } catch(IOException e) {
+            throw new IllegalStateException("Cannot write the checkpoint " + checkpointPath + ": " + e.getMessage(), e);
+        }
+        try {
+            Files.move(Paths.get(temporary), Paths.get(checkpointPath), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            throw new IllegalStateException("Cannot write the checkpoint " + checkpointPath + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Takes a checkpoint if one is due at the end of the given simulation unit.
+     *
+     * @param simulationUnit
+     *      Simulation unit that just ended.
+     */
+    private void checkpointIfDue(int simulationUnit) {
+        if(checkpointPath == null || simulationUnit < nextCheckpoint)
+            return;
+        checkpoint(simulationUnit + 1);
+        nextCheckpoint = simulationUnit - simulationUnit % checkpointEvery + checkpointEvery;
+    }
+
+    /**
+     * Modifier. Continues the simulation saved in a checkpoint file. The next call to {@link #simulate()}
+     * starts in the first simulation unit that had not run, and gives exactly the same results as the
+     * run that took the checkpoint. This Simulator must have the same settings as that run, except the
+     * duration, and an ArrivalSource of the same kind.
+     *
+     * @param path
+     * 		Path of the checkpoint file.
+     *
+     * @throws IOException
+     * 		when the file cannot be read or was taken with different settings.
+     * */
+    public void restore(String path) throws IOException {
+        if(!(arrivals instanceof Checkpointable))
+            throw new IOException("The arrivals of this simulation cannot be restored from a checkpoint.");
+        buildNetwork();
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            if(in.readLong() != CHECKPOINT_MAGIC)
+                throw new IOException(path + " is not a checkpoint file.");
+            String settings = in.readUTF();
+            if(!settings.equals(checkpointSettings()))
+                throw new IOException("The checkpoint was taken with different settings: " + settings);
+            startTick = in.readInt();
+            packetCount = in.readInt();
+
+            for(Router router : routers)
+                while(!router.isEmpty())
+                    store.release(router.dequeueSlot());
+            int used = in.readInt();
+            for(int i = 0; i < used; i++) {
+                int routerIndex = in.readInt(), size = in.readInt();
+                if(routerIndex < 0 || routerIndex >= routers.size() || size > routers.get(routerIndex).capacity())
+                    throw new IOException("Invalid router in checkpoint: " + (routerIndex + 1) + ".");
+                for(int j = 0; j < size; j++)
+                    routers.get(routerIndex).enqueueSlot(store.allocate(in.readInt(), in.readInt(), in.readInt(),
+                            in.readInt()));
+            }
+            for(Router router : routers)
+                router.getQueue().readState(in);
+            balancer.readState(in);
+            readyRouters.readState(in);
+            dueRouters.readState(in);
+            metrics.readState(in);
+            if(warmup != null)
+                warmup.readState(in);
+            ((Checkpointable) arrivals).readState(in);
+            //the front packets age from the time to destination they had when the checkpoint was taken
+            for(int i = 0; i < numIntRouters; i++) {
+                headSlot[i] = routers.get(i).peekSlot();
+                int timeToDest = (headSlot[i] == -1) ? 0 : store.getTimeToDest(headSlot[i]);
+                headDue[i] = (timeToDest == 0) ? -1 : startTick - 1 + timeToDest;
+            }
+        } catch(EmptyBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates Packets based on arrival probability and records all packets that arrive at dispatcher.
+     *
+     * @param timeArrived
+     *      Time in which the packets arrived at the dispatcher.
+     */
+    private void packetArriving(int timeArrived){
+        while(arrivals.nextTime() <= timeArrived){
+            int size = arrivals.take(), id = ++packetCount;
+            //Time it takes the packet to reach the destination = packetSize / 100
+            dispatcher.enqueueSlot(store.allocate(id, size, timeArrived, size/100));
+            metrics.packetArrived();
+            events.packetArrived(id, size);
+        }
+        if(dispatcher.isEmpty())
+            events.noPacketsArrived();
+    }
+
+    /**
+     * Records when the new front packet of a Router becomes ready to be sent to destination.
+     * A packet that reaches the front because the packet before it was sent is never sent in the
+     * same simulation unit, for the purpose of fairness.
+     *
+     * @param routerIndex
+     *      Position of the Router whose front packet changed.
+     *
+     * @param simulationUnit
+     *      Current simulation unit.
+     *
+     * @param afterDelivery
+     *      true if the packet before it was just sent to destination, false if the Router was empty.
+     */
+    private void headChanged(int routerIndex, int simulationUnit, boolean afterDelivery) {
+        int head = routers.get(routerIndex).peekSlot();
+        if(engine != SimulationEngine.EVENT) {
+            //a packet pushed back from the front keeps the time it has left
+            if(headDue[routerIndex] != -1 && headSlot[routerIndex] != head)
+                store.setTimeToDest(headSlot[routerIndex], headDue[routerIndex] - simulationUnit + 1);
+            headSlot[routerIndex] = head;
+            headDue[routerIndex] = -1;
+        }
+        if(head == -1)
+            return;
+
+        int timeToDest = store.getTimeToDest(head);
+        if(engine == SimulationEngine.EVENT) {
+            int dueTime = simulationUnit + ((afterDelivery && timeToDest == 0) ? 1 : timeToDest);
+            if(dueTime == simulationUnit)
+                readyRouters.add(routerIndex);
+            else
+                dueRouters.add(routerIndex, dueTime);
+        } else if(timeToDest == 0) {
+            if(afterDelivery)
+                deferredReady[deferredCount++] = routerIndex;
+            else
+                readyRouters.add(routerIndex);
+        } else {
+            //aged once in this simulation unit, so it reaches 0 when aged timeToDest - 1 units later
+            headDue[routerIndex] = simulationUnit + timeToDest - 1;
+        }
+    }
+
+    /**
+     * Writes the time to destination left to every front packet that is aging, so the store is exact.
+     *
+     * @param agedThrough
+     *      Last simulation unit whose aging has run.
+     */
+    private void syncHeads(int agedThrough) {
+        if(engine == SimulationEngine.EVENT)
+            return;
+        for(int i = 0; i < numIntRouters; i++)
+            if(headDue[i] != -1)
+                store.setTimeToDest(headSlot[i], headDue[i] - agedThrough);
+    }
+
+    /**
+     * Dispatcher sends all arrived packets to the Routers at once, each to the Router chosen by the load
+     * balancer. Packets for which no Router can be chosen, or sent to a full Router, will be dropped. A
+     * Router whose queue discipline refuses a packet drops it as well.
+     *
+     * @param simulationUnit
+     *      Current simulation unit.
+     *
+     * @return
+     *      Number of packets dropped.
+     */
+    private int sendToRouters(int simulationUnit) throws EmptyBufferException {
+        int packets = dispatcher.size(), dropped = 0;
+        dispatchBacklog = packets;
+        balancer.assign(dispatcher, dispatchTargets);
+        for(int i = 0; i < packets; i++) {
+            int routerIndex = dispatchTargets[i], packetSent = dispatcher.dequeueSlot();
+            if(routerIndex == -1 || !routers.get(routerIndex).offerSlot(packetSent)) {
+                dropPacket(packetSent, routerIndex + 1, simulationUnit);
+                dropped++;
+                continue;
+            }
+            Router router = routers.get(routerIndex);
+            balancer.added(routerIndex, packetSent);
+            metrics.queueDepthChanged(routerIndex, router.size(), simulationUnit);
+            if(results != null)
+                results.depthChanged(routerIndex, router.size());
+            if(router.peekSlot() == packetSent)
+                headChanged(routerIndex, simulationUnit, false);
+            events.packetSent(store.getId(packetSent), routerIndex + 1);
+        }
+        return dropped;
+    }
+
+    /**
+     * Drops a packet of the dispatcher.
+     *
+     * @param slot
+     *      Slot holding the packet.
+     *
+     * @param router
+     *      Router number that refused the packet, or 0 when no router was chosen.
+     *
+     * @param simulationUnit
+     *      Current simulation unit.
+     */
+    private void dropPacket(int slot, int router, int simulationUnit) {
+        metrics.packetDropped(simulationUnit);
+        flightEvents.dropped(store.getId(slot), router, simulationUnit);
+        if(results != null)
+            results.packetDropped(store.getId(slot), store.getPacketSize(slot), store.getTimeArrived(slot),
+                    simulationUnit, router);
+        events.packetDropped(store.getId(slot));
+        store.release(slot);
+    }
+
+    /**
+     * Sent all packets that are ready to destination, starting from the lowest numbered ready router.
+     * If the number of packets being sent has reached the size of bandWidth,
+     * any remaining packets will stay in the router and wait for the next simulation unit.
+     * A packet that becomes ready because the packet in front of it left is only sent in the next
+     * simulation unit, for the purpose of fairness.
+     *
+     * @param simulationUnit
+     *      Current simulation unit.
+     */
+    private void sendPacketToDestination(int simulationUnit) throws EmptyBufferException {
+        int count = 0;
+        deferredCount = 0;
+        while(!(readyRouters.isEmpty()) && count < bandWidth){
+            int routerIndex = readyRouters.poll();
+            Router router = routers.get(routerIndex);
+            //a queue discipline may have put a packet that is not ready in front of the ready one; the event
+            //engine does not count the time to destination down and only takes first in, first out queues
+            if(engine != SimulationEngine.EVENT && store.getTimeToDest(router.peekSlot()) != 0)
+                continue;
+            int arrivedPacket = router.dequeueSlot();
+            balancer.removed(routerIndex, arrivedPacket);
+            metrics.queueDepthChanged(routerIndex, router.size(), simulationUnit);
+            if(results != null)
+                results.depthChanged(routerIndex, router.size());
+            int serviceTime = simulationUnit - store.getTimeArrived(arrivedPacket);
+            metrics.packetDelivered(simulationUnit, serviceTime);
+            events.packetDelivered(store.getId(arrivedPacket), serviceTime);
+            if(results != null)
+                results.packetDelivered(store.getId(arrivedPacket), store.getPacketSize(arrivedPacket),
+                        store.getTimeArrived(arrivedPacket), simulationUnit, routerIndex + 1);
+            store.release(arrivedPacket);
+            count++;
+            headChanged(routerIndex, simulationUnit, true);
+        }
+        for(int i = 0; i < deferredCount; i++)
+            readyRouters.add(deferredReady[i]);
+    }
+
+    /**
+     * Display information of the intermediate Routers and age the packets that are in the front.
+     * Routers whose front packet reaches zero become ready.
+     *
+     * @param simulationUnit
+     *      Current simulation unit.
+     */
+    private void packetsInRouters(int simulationUnit) {
+        if(events.isEnabled(EventLevel.TICK)) {
+            syncHeads(simulationUnit - 1);
+            for(int i = 1; i <= routers.size(); i++)
+                events.routerState(i, routers.get(i - 1));
+        }
+
+        agingTick = simulationUnit;
+        if(shards == null)
+            ageRouters(0, 0, routers.size());
+        else
+            shards.run();
+        //the ready set orders the routers by position, so the order of the shards does not matter
+        for(int shard = 0; shard < shardReady.length; shard++)
+            for(int i = 0; i < shardReadyCount[shard]; i++)
+                readyRouters.add(shardReady[shard][i]);
+    }
+
+    /**
+     * Ages the front packet of the Routers in the range [from, to). Instead of decrementing the time to
+     * destination of every front packet, each Router keeps the simulation unit in which it reaches 0, so
+     * aging is one pass comparing a contiguous array with the current unit, and only the Routers that
+     * become ready touch their packet. Only touches those Routers, so shards of Routers can be aged at
+     * the same time.
+     *
+     * @param shard
+     *      Shard recording the Routers whose front packet reaches zero.
+     *
+     * @param from
+     *      Position of the first Router.
+     *
+     * @param to
+     *      Position after the last Router.
+     */
+    private void ageRouters(int shard, int from, int to) {
+        int[] ready = shardReady[shard], due = headDue;
+        int count = 0, time = agingTick;
+        for(int i = from; i < to; i++) {
+            if(due[i] == time) {
+                due[i] = -1;
+                store.setTimeToDest(headSlot[i], 0);
+                ready[count++] = i;
+            }
+        }
+        shardReadyCount[shard] = count;
+    }
+
+    /**
+     * Reports the end of a simulation unit to the monitor, the Flight Recorder events and the exported results.
+     *
+     * @param simulationUnit
+     *      Simulation unit completed.
+     */
+    private void ticked(int simulationUnit) {
+        monitor.ticked(simulationUnit, dispatchBacklog);
+        flightEvents.ticked(simulationUnit, dispatchBacklog);
+        if(results != null)
+            results.ticked(simulationUnit, simulationUnit, metrics);
+        if(warmup != null)
+            warmup.ticked(simulationUnit);
+        dispatchBacklog = 0;
+    }
+
+    /**
+     * Reports the simulation units the event engine skipped, in which nothing changed, to the monitor,
+     * the Flight Recorder events and the exported results, so they count simulation units rather than units run.
+     * The warm-up detector fills in skipped units by itself.
+     *
+     * @param first
+     *      First skipped simulation unit.
+     *
+     * @param last
+     *      Last skipped simulation unit.
+     */
+    private void skipped(int first, int last) {
+        monitor.ticked(last, 0);
+        flightEvents.ticked(last, 0);
+        if(results != null)
+            results.ticked(first, last, metrics);
+    }
+
+    /**
+     * Runs every simulation unit from 1 to duration, or until the steady state is known precisely enough.
+     */
+    private void simulateTicks() throws EmptyBufferException {
+        for(int i = startTick; i <= duration; i++){
+            events.tickStarted(i);
+            packetArriving(i);
+            sendToRouters(i);
+            sendPacketToDestination(i);
+            packetsInRouters(i);
+            ticked(i);
+            checkpointIfDue(i);
+            if(warmup != null && warmup.isConverged()) {
+                endTick = i;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs only the simulation units in which a packet arrives or a router has a packet ready to be
+     * sent to destination. The time to destination of the packets is not decremented; instead, each
+     * router remembers the simulation unit in which its front packet becomes ready.
+     */
+    private void simulateEvents() throws EmptyBufferException {
+        int time = startTick - 1;
+        while(true){
+            int next = Math.min(arrivals.nextTime(), dueRouters.peekTime());
+            if(!readyRouters.isEmpty())
+                next = Math.min(next, time + 1);
+            if(next > duration || next == Integer.MAX_VALUE) {
+                if(time < duration)
+                    skipped(time + 1, duration);
+                break;
+            }
+
+            if(next > time + 1)
+                skipped(time + 1, next - 1);
+            time = next;
+            events.tickStarted(time);
+            if(arrivals.nextTime() == time){
+                packetArriving(time);
+                sendToRouters(time);
+            }
+            while(dueRouters.peekTime() <= time)
+                readyRouters.add(dueRouters.poll());
+            sendPacketToDestination(time);
+            ticked(time);
+            checkpointIfDue(time);
+            if(warmup != null && warmup.isConverged()) {
+                endTick = time;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the intermediate Routers and the structures tracking them, once.
+     */
+    private void buildNetwork() {
+        if(loadIndex != null)
+            return;
+        RandomSource seeded = new RandomSource(config.getSeed());
+        RandomSource queueRandom = seeded.split(), balancerRandom = seeded.split();
+        for(int i = 0; i < numIntRouters; i++)
+            routers.add(new Router(store, config.getQueue().create(config.getMaxBufferSize(), store, config,
+                    queueRandom.split())));
+        loadIndex = new RouterLoadIndex(routers);
+        balancer = config.getBalancer().create(routers, loadIndex, store, config, balancerRandom);
+        readyRouters = new ReadySet(numIntRouters);
+        deferredReady = new int[numIntRouters];
+        headSlot = new int[numIntRouters];
+        headDue = new int[numIntRouters];
+        Arrays.fill(headSlot, -1);
+        Arrays.fill(headDue, -1);
+        dueRouters = new DueTimeQueue(numIntRouters);
+        if(config.isWarmup())
+            warmup = new WarmupDetector(metrics, startTick, config.getSteadyPrecision());
+    }
+
+    /**
+     * Run and output the process that indicates how the packets are being sent through the network.
+     *
+     * @return
+     * 		Average time each packet is in the network, after the warm-up when it is detected.
+     * */
+    public double simulate() throws EmptyBufferException {
+        buildNetwork();
+        if(checkpointPath != null)
+            nextCheckpoint = startTick - 1 + checkpointEvery;
+
+        if(engine == SimulationEngine.PARALLEL && config.getShards() > 1 && numIntRouters > 1)
+            shards = new RouterShards(config.getShards(), numIntRouters, this::ageRouters);
+        int numShards = (shards == null) ? 1 : shards.size();
+        shardReady = new int[numShards][];
+        shardReadyCount = new int[numShards];
+        for(int shard = 0; shard < numShards; shard++)
+            shardReady[shard] = new int[(shards == null) ? numIntRouters : shards.shardSize(shard)];
+
+        endTick = duration;
+        if(engine == SimulationEngine.EVENT) {
+            simulateEvents();
+        } else {
+            try {
+                simulateTicks();
+            } finally {
+                if(shards != null)
+                    shards.close();
+            }
+        }
+        metrics.finish(endTick);
+        events.flush();
+        //the warm-up is left out of the reported average once its end is known
+        if(warmup != null && warmup.isWarmedUp() && warmup.getSteadyServiceTime() != 0)
+            return warmup.getSteadyServiceTime();
+        if(metrics.getPacketsDelivered() != 0)
+            return metrics.getAverageServiceTime();
+
+        events.noPacketsDelivered();
+        return 0;
+    }
+
+    /**
+     * Checks if the user is entering anything but an integer and if the entered integer is positive.
+     *
+     * @param input
+     * 		Scanner reading the user input.
+     *
+     * @param prompt
+     * 		Prompt for user input.
+     *
+     * @throws IllegalArgumentException
+     * 		when input is a negative integer.
+     *
+     * @return
+     * 		User input as an integer
+     * */
+    public static int inputInt(Scanner input, String prompt) throws IllegalArgumentException {
+        System.out.print(prompt);
+        int intInput = Integer.parseInt(input.nextLine());
+        if(intInput < 0)
+            throw new IllegalArgumentException("Please enter a positive integer.\n");
+
+        return intInput;
+    }
+
+    /**
+     * Checks if the user enters a number or not and if the entered number is in the range [0, 1]
+     *
+     * @param input Scanner reading the user input.
+     * @return User input as a double.
+     * @throws IllegalArgumentException when user input is out of range.
+     */
+    private static double inputProbability(Scanner input) throws IllegalArgumentException {
+        System.out.print("\nEnter the arrival probability of a packet: ");
+        double prob = Double.parseDouble(input.nextLine());
+        if(prob < 0 || prob > 1)
+            throw new IllegalArgumentException("Invalid input. Please only enter a " +
+                    "probability in range of [0,1].\n");
+
+        return prob;
+    }
+
+    /**
+     * Returns a Simulator based on user input.
+     *
+     * @param input
+     *      Scanner reading the user input.
+     *
+     * @return
+     *      A Simulator based on user input.
+     */
+    private static Simulator generateSimulator(Scanner input){
+        SimulationConfig.Builder config = SimulationConfig.builder();
+        config.numIntRouters(inputInt(input, "Enter the number of intermediate routers: "));
+        config.arrivalProb(inputProbability(input));
+        config.maxBufferSize(inputInt(input, "\nEnter the maximum buffer size of a router: "));
+        config.maxPackets(inputInt(input, "\nEnter the maximum number of packets that can arrive at dispatcher: "));
+        config.minPacketSize(inputInt(input, "\nEnter the minimum size of a packet (Recommend size of 100): "));
+        config.maxPacketSize(inputInt(input, "\nEnter the maximum size of a packet (Recommend size > 100): "));
+        config.bandwidth(inputInt(input, "\nEnter the bandwidth size: "));
+        config.duration(inputInt(input, "\nEnter the simulation duration: "));
+
+        return new Simulator(config.build());
+    }
+
+    /**
+     * Activates the Simulator and display appropriate statistics.
+     *
+     * @param simulator
+     *      Simulator being activate.
+     *
+     */
+    static void simulate(Simulator simulator) throws EmptyBufferException {
+        EventSink events = simulator.getEventSink();
+        try {
+            double average = simulator.simulate();
+            events.summary(simulator.getTotalServiceTime(), simulator.getTotalPacketsArrived(),
+                    average, simulator.getPacketsDropped());
+            events.serviceTimes(simulator.getMetrics().getServiceTimes());
+            WarmupDetector warmup = simulator.getWarmup();
+            if(warmup != null && warmup.isWarmedUp())
+                events.steadyState(warmup.getWarmupEnd(), warmup.getSteadyTicks(), warmup.getSteadyServiceTime(),
+                        warmup.getSteadyDropRate(), warmup.getSteadyQueueDepth());
+            else if(warmup != null)
+                events.noSteadyState();
+        } finally {
+            events.flush();
+        }
+    }
+
+    /**
+     * Ask the user if they want to create another simulation. If not, terminate the program.
+     *
+     * @param input
+     *      Scanner reading the user input.
+     *
+     * @return
+     *      true if the user wants another simulation, false otherwise.
+     */
+    private static boolean exit(Scanner input){
+        System.out.print("\nDo you want to try another simulation? [y|n]: ");
+        String cont = input.nextLine().toLowerCase().trim();
+
+        while(!(cont.equals("y") || cont.equals("n"))) {
+            System.out.print("\nPlease enter only y or n: ");
+            cont = input.nextLine().toLowerCase().trim();
+        }
+
+        if(cont.equals("n")){
+            System.out.println("\nProgram terminating successfully...");
+            input.close();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The main method will ask for user input and create a Simulator object based on the given information.
+     * Later it calls the simulate() method on the Simulator object
+     * and prints out the total service time, total packets served, average service time
+     * per packet, and total packets that are dropped during the simulation.
+     * */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+        boolean run = true;
+        Simulator simulator;
+        while(run){
+            System.out.println("Starting simulator...\n");
+            try{
+                simulator = generateSimulator(input);
+                simulate(simulator);
+                run = exit(input);
+                System.out.println();
+            } catch(NumberFormatException e){
+                System.out.println("Error: Please enter a number.\n");
+            } catch(EmptyBufferException | IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+
+}
+
@@ -0,0 +1,89 @@
+/**
+ * The SimulatorMXBean interface is the management view of a running Simulator, published through JMX
+ * by a SimulatorMonitor. Rates are averaged over the last sampling interval of about one second.
+ *
+ * @author Zhen Wei Liao
+ **/
+public interface SimulatorMXBean {
+
+    /**
+     * Returns the last simulation unit completed.
+     *
+     * @return
+     * 		Last simulation unit completed, 0 before the first one.
+     * */
+    int getSimulationUnit();
+
+    /**
+     * Returns the number of simulation units completed per second of wall-clock time, counting the units
+     * the event engine skips, so the rates of both engines compare.
+     *
+     * @return
+     * 		Simulation units per second.
+     * */
+    double getTicksPerSecond();
+
+    /**
+     * Returns the number of packets arriving at the dispatcher per second of wall-clock time.
+     *
+     * @return
+     * 		Arriving packets per second.
+     * */
+    double getPacketsInPerSecond();
+
+    /**
+     * Returns the number of packets reaching their destination per second of wall-clock time.
+     *
+     * @return
+     * 		Delivered packets per second.
+     * */
+    double getPacketsOutPerSecond();
+
+    /**
+     * Returns the number of packets dropped per second of wall-clock time.
+     *
+     * @return
+     * 		Dropped packets per second.
+     * */
+    double getDropsPerSecond();
+
+    /**
+     * Returns the number of packets that arrived at the dispatcher so far.
+     *
+     * @return
+     * 		Number of packets arrived.
+     * */
+    long getPacketsArrived();
+
+    /**
+     * Returns the number of packets that reached their destination so far.
+     *
+     * @return
+     * 		Number of packets delivered.
+     * */
+    long getPacketsDelivered();
+
+    /**
+     * Returns the number of packets dropped so far.
+     *
+     * @return
+     * 		Number of packets dropped.
+     * */
+    long getPacketsDropped();
+
+    /**
+     * Returns the number of packets the dispatcher held at the start of the last dispatch.
+     *
+     * @return
+     * 		Packets waiting at the dispatcher.
+     * */
+    int getDispatcherBacklog();
+
+    /**
+     * Returns the number of packets held by every intermediate router.
+     *
+     * @return
+     * 		Queue depth of each router, in order of router number.
+     * */
+    int[] getQueueDepths();
+}
@@ -0,0 +1,167 @@
+/**
+ * The SimulatorMonitor class publishes the progress of a running Simulator as a JMX MBean, so that a
+ * long run can be watched with JConsole or any JMX client. The Simulator thread only stores the last
+ * simulation unit and the dispatcher backlog, with release stores; every other value is read from the
+ * SimulationMetrics, which other threads may read at any time. Rates are computed when a client asks
+ * for them, so an unwatched monitor costs nothing but those two stores per simulation unit.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class SimulatorMonitor implements SimulatorMXBean, AutoCloseable {
+
+    //shortest wall-clock time over which the rates are measured
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+
+    private final SimulationMetrics metrics;
+    private final AtomicInteger simulationUnit = new AtomicInteger(), dispatcherBacklog = new AtomicInteger();
+    private ObjectName name;
+
+    //values at the previous sample and the rates measured since the one before
+    private long sampleNanos = System.nanoTime(), sampleTicks, sampleArrived, sampleDelivered, sampleDropped;
+    private double ticksPerSecond, packetsInPerSecond, packetsOutPerSecond, dropsPerSecond;
+
+    /**
+     * Constructor creates a SimulatorMonitor reading the given statistics.
+     *
+     * @param metrics
+     * 		Statistics of the Simulator.
+     * */
+    public SimulatorMonitor(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Records the end of a simulation unit. Called by the Simulator thread only.
+     *
+     * @param time
+     * 		Simulation unit completed.
+     *
+     * @param backlog
+     * 		Packets the dispatcher held at the start of the dispatch in this simulation unit.
+     * */
+    void ticked(int time, int backlog) {
+        simulationUnit.lazySet(time);
+        dispatcherBacklog.lazySet(backlog);
+    }
+
+    /**
+     * Registers this SimulatorMonitor with the platform MBean server under the name
+     * <code>PacketSimulator:type=Simulator,name=</code>name.
+     *
+     * @param name
+     * 		Name telling this Simulator apart from other ones in the same JVM.
+     *
+     * @throws IllegalStateException
+     * 		when the MBean cannot be registered, for instance because the name is taken.
+     * */
+    public void register(String name) throws IllegalStateException {
+        try {
+            ObjectName objectName = new ObjectName("PacketSimulator:type=Simulator,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+        } catch(JMException e) {
+            throw new IllegalStateException("Cannot register the simulator MBean " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Unregisters this SimulatorMonitor, if it is registered.
+     * */
+    @Override
+    public void close() {
+        if(name == null)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch(JMException e) {
+            //already gone
+        }
+        name = null;
+    }
+
+    /**
+     * Measures the rates again if the last sample is older than the sampling interval. Called with the
+     * lock of this SimulatorMonitor held.
+     * */
+    private void sample() {
+        long now = System.nanoTime(), elapsed = now - sampleNanos;
+        if(elapsed < SAMPLE_NANOS)
+            return;
+        long ticks = simulationUnit.get(), arrived = metrics.getPacketsArrived(),
+                delivered = metrics.getPacketsDelivered(), dropped = metrics.getPacketsDropped();
+        double seconds = elapsed / 1e9;
+        ticksPerSecond = (ticks - sampleTicks) / seconds;
+        packetsInPerSecond = (arrived - sampleArrived) / seconds;
+        packetsOutPerSecond = (delivered - sampleDelivered) / seconds;
+        dropsPerSecond = (dropped - sampleDropped) / seconds;
+        sampleNanos = now;
+        sampleTicks = ticks;
+        sampleArrived = arrived;
+        sampleDelivered = delivered;
+        sampleDropped = dropped;
+    }
+
+    @Override
+    public int getSimulationUnit() {
+        return simulationUnit.get();
+    }
+
+    @Override
+    public synchronized double getTicksPerSecond() {
+        sample();
+        return ticksPerSecond;
+    }
+
+    @Override
+    public synchronized double getPacketsInPerSecond() {
+        sample();
+        return packetsInPerSecond;
+    }
+
+    @Override
+    public synchronized double getPacketsOutPerSecond() {
+        sample();
+        return packetsOutPerSecond;
+    }
+
+    @Override
+    public synchronized double getDropsPerSecond() {
+        sample();
+        return dropsPerSecond;
+    }
+
+    @Override
+    public long getPacketsArrived() {
+        return metrics.getPacketsArrived();
+    }
+
+    @Override
+    public long getPacketsDelivered() {
+        return metrics.getPacketsDelivered();
+    }
+
+    @Override
+    public long getPacketsDropped() {
+        return metrics.getPacketsDropped();
+    }
+
+    @Override
+    public int getDispatcherBacklog() {
+        return dispatcherBacklog.get();
+    }
+
+    @Override
+    public int[] getQueueDepths() {
+        int[] depths = new int[metrics.getNumRouters()];
+        for(int router = 0; router < depths.length; router++)
+            depths[router] = metrics.getDepth(router);
+        return depths;
+    }
+}
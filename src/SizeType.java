@@ -0,0 +1,54 @@
+/**
+ * The SizeType enum lists the distributions the sizes of arriving packets can follow, selected per run.
+ *
+ * @author Zhen Wei Liao
+ **/
+public enum SizeType {
+    //every size in [minPacketSize, maxPacketSize] equally likely
+    UNIFORM,
+    //Pareto starting at minPacketSize, cut off at maxPacketSize
+    PARETO,
+    //lognormal centred between minPacketSize and maxPacketSize, cut off at both
+    LOGNORMAL;
+
+    /**
+     * Returns the SizeType with the given name, ignoring case.
+     *
+     * @param name
+     * 		Name of the distribution, "uniform", "pareto" or "lognormal".
+     *
+     * @throws IllegalArgumentException
+     * 		when the name does not match any distribution.
+     *
+     * @return
+     * 		SizeType with the given name.
+     * */
+    public static SizeType parse(String name) throws IllegalArgumentException {
+        for(SizeType type : values())
+            if(type.name().equalsIgnoreCase(name.trim()))
+                return type;
+
+        throw new IllegalArgumentException("Invalid sizes: " + name + ". Please enter uniform, pareto or lognormal.");
+    }
+
+    /**
+     * Creates the PacketSizes of this distribution.
+     *
+     * @param config
+     * 		Settings of the simulation, giving the packet size range and the shape of the distribution.
+     *
+     * @return
+     * 		New PacketSizes.
+     * */
+    public PacketSizes create(SimulationConfig config) {
+        switch(this) {
+            case PARETO:
+                return PacketSizes.pareto(config.getMinPacketSize(), config.getMaxPacketSize(), config.getSizeShape());
+            case LOGNORMAL:
+                return PacketSizes.lognormal(config.getMinPacketSize(), config.getMaxPacketSize(),
+                        config.getSizeShape());
+            default:
+                return PacketSizes.uniform(config.getMinPacketSize(), config.getMaxPacketSize());
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * The SweepRunner class runs one Simulator for every combination of a set of parameter ranges,
+ * spreading the runs over all cores with a fork-join pool, and writes one CSV row per run as soon
+ * as it finishes. Rows are written in the order runs finish; the run column gives their position
+ * in the sweep.
+ *
+ * <p>Each parameter is given as key=value, where value is a single number, a list such as
+ * 0.1,0.5,0.9, or an inclusive range start:end:step such as 10:1000:10. Swept keys: routers,
+ * arrivalProb, bufferSize, maxPackets, minPacketSize, maxPacketSize, bandwidth and duration.
+ * Other keys: seed (seed of the whole sweep), engine (tick or event), threads (number of worker
+ * threads, all cores when absent), output (CSV file path, standard output when absent) and
+ * config (a properties file holding any of these keys).
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class SweepRunner {
+
+    public static final String CSV_HEADER = "run,routers,arrivalProb,bufferSize,maxPackets,minPacketSize," +
+            "maxPacketSize,bandwidth,duration,seed,totalServiceTime,packetsServed,averageServiceTime,packetsDropped,p50,p99,p999,maxServiceTime";
+
+    private final int[] routers, bufferSizes, maxPackets, minPacketSizes, maxPacketSizes, bandwidths, durations;
+    private final double[] arrivalProbs;
+    private final long[] seeds;
+    private final SimulationEngine engine;
+    private final PrintWriter out;
+
+    /**
+     * Constructor creates a SweepRunner from the given configuration.
+     *
+     * @param config
+     * 		Parameter ranges and options of the sweep.
+     *
+     * @param out
+     * 		Writer receiving the CSV rows.
+     *
+     * @throws IllegalArgumentException
+     * 		when a value in the configuration is invalid.
+     * */
+    public SweepRunner(Properties config, Writer out) throws IllegalArgumentException {
+        routers = intRange(config, "routers", "1");
+        arrivalProbs = probabilityRange(config, "arrivalProb", "0.5");
+        bufferSizes = intRange(config, "bufferSize", "10");
+        maxPackets = intRange(config, "maxPackets", String.valueOf(Simulator.MAX_PACKETS));
+        minPacketSizes = intRange(config, "minPacketSize", "100");
+        maxPacketSizes = intRange(config, "maxPacketSize", "500");
+        bandwidths = intRange(config, "bandwidth", "1");
+        durations = intRange(config, "duration", "100");
+        engine = SimulationEngine.parse(config.getProperty("engine", "tick"));
+
+        long total = (long) routers.length * arrivalProbs.length * bufferSizes.length * maxPackets.length *
+                minPacketSizes.length * maxPacketSizes.length * bandwidths.length * durations.length;
+        if(total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid sweep. It has more than " + Integer.MAX_VALUE + " runs.");
+
+        //seeds are drawn in run order, so the same sweep seed gives the same rows
+        String seed = config.getProperty("seed");
+        RandomSource random;
+        try {
+            random = (seed == null) ? new RandomSource() : new RandomSource(Long.parseLong(seed.trim()));
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for seed: " + seed + ". Please enter a number.");
+        }
+        seeds = new long[(int) total];
+        for(int i = 0; i < seeds.length; i++)
+            seeds[i] = random.nextLong();
+
+        this.out = new PrintWriter(new BufferedWriter(out, 1 << 16));
+    }
+
+    /**
+     * Returns the number of runs in the sweep.
+     *
+     * @return
+     * 		Number of parameter combinations.
+     * */
+    public int size() {
+        return seeds.length;
+    }
+
+    /**
+     * Returns the values of an integer parameter.
+     *
+     * @param config
+     * 		Configuration of the sweep.
+     *
+     * @param key
+     * 		Name of the parameter.
+     *
+     * @param defaultValue
+     * 		Value used when the key is absent.
+     *
+     * @throws IllegalArgumentException
+     * 		when a value is not an integer or is negative, or the range is empty.
+     *
+     * @return
+     * 		Values of the parameter.
+     * */
+    static int[] intRange(Properties config, String key, String defaultValue) throws IllegalArgumentException {
+        double[] values = range(config, key, defaultValue);
+        int[] ints = new int[values.length];
+        for(int i = 0; i < values.length; i++) {
+            if(values[i] < 0 || values[i] != Math.rint(values[i]) || values[i] > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + values[i] +
+                        ". Please enter a positive integer.");
+            ints[i] = (int) values[i];
+        }
+        return ints;
+    }
+
+    /**
+     * Returns the values of a probability parameter.
+     *
+     * @param config
+     * 		Configuration of the sweep.
+     *
+     * @param key
+     * 		Name of the parameter.
+     *
+     * @param defaultValue
+     * 		Value used when the key is absent.
+     *
+     * @throws IllegalArgumentException
+     * 		when a value is not in the range [0, 1], or the range is empty.
+     *
+     * @return
+     * 		Values of the parameter.
+     * */
+    static double[] probabilityRange(Properties config, String key, String defaultValue)
+            throws IllegalArgumentException {
+        double[] values = range(config, key, defaultValue);
+        for(double prob : values)
+            if(prob < 0 || prob > 1)
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + prob +
+                        ". Please only enter a probability in range of [0,1].");
+        return values;
+    }
+
+    /**
+     * Parses a single number, a comma separated list or an inclusive range start:end:step.
+     *
+     * @param config
+     * 		Configuration of the sweep.
+     *
+     * @param key
+     * 		Name of the parameter.
+     *
+     * @param defaultValue
+     * 		Value used when the key is absent.
+     *
+     * @throws IllegalArgumentException
+     * 		when the value cannot be parsed or the range is empty.
+     *
+     * @return
+     * 		Values of the parameter.
+     * */
+    private static double[] range(Properties config, String key, String defaultValue) throws IllegalArgumentException {
+        String value = config.getProperty(key, defaultValue).trim();
+        try {
+            if(value.contains(":")) {
+                String[] parts = value.split(":");
+                if(parts.length != 3)
+                    throw new IllegalArgumentException("Invalid range for " + key + ": " + value +
+                            ". Expected start:end:step.");
+                //decimal arithmetic keeps ranges such as 0.1:0.9:0.1 exact
+                BigDecimal start = new BigDecimal(parts[0].trim()), end = new BigDecimal(parts[1].trim()),
+                        step = new BigDecimal(parts[2].trim());
+                if(step.signum() <= 0 || end.compareTo(start) < 0)
+                    throw new IllegalArgumentException("Invalid range for " + key + ": " + value +
+                            ". The step must be positive and the end cannot be before the start.");
+                int count = end.subtract(start).divideToIntegralValue(step).intValueExact() + 1;
+                double[] values = new double[count];
+                for(int i = 0; i < count; i++)
+                    values[i] = start.add(step.multiply(BigDecimal.valueOf(i))).doubleValue();
+                return values;
+            }
+
+            String[] parts = value.split(",");
+            double[] values = new double[parts.length];
+            for(int i = 0; i < parts.length; i++)
+                values[i] = Double.parseDouble(parts[i].trim());
+            return values;
+        } catch(NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + ". Please enter a number.");
+        }
+    }
+
+    /**
+     * Runs the configuration at the given position of the sweep and writes its row.
+     *
+     * @param run
+     * 		Position of the configuration in the sweep.
+     * */
+    private void run(int run) {
+        int i = run;
+        int duration = durations[i % durations.length];
+        i /= durations.length;
+        int bandwidth = bandwidths[i % bandwidths.length];
+        i /= bandwidths.length;
+        int maxPacketSize = maxPacketSizes[i % maxPacketSizes.length];
+        i /= maxPacketSizes.length;
+        int minPacketSize = minPacketSizes[i % minPacketSizes.length];
+        i /= minPacketSizes.length;
+        int packets = maxPackets[i % maxPackets.length];
+        i /= maxPackets.length;
+        int bufferSize = bufferSizes[i % bufferSizes.length];
+        i /= bufferSizes.length;
+        double arrivalProb = arrivalProbs[i % arrivalProbs.length];
+        i /= arrivalProbs.length;
+        int numIntRouters = routers[i];
+
+        StringBuilder row = new StringBuilder();
+        row.append(run).append(',').append(numIntRouters).append(',').append(arrivalProb).append(',')
+                .append(bufferSize).append(',').append(packets).append(',').append(minPacketSize).append(',')
+                .append(maxPacketSize).append(',').append(bandwidth).append(',').append(duration).append(',')
+                .append(seeds[run]).append(',');
+        if(minPacketSize > maxPacketSize) {
+            //an empty size range has no result, but keeps its row so every run is accounted for
+            row.append(",,,,,,,");
+        } else {
+            Simulator simulator = new Simulator(SimulationConfig.builder().numIntRouters(numIntRouters)
+                    .arrivalProb(arrivalProb).maxBufferSize(bufferSize).maxPackets(packets)
+                    .minPacketSize(minPacketSize).maxPacketSize(maxPacketSize).bandwidth(bandwidth)
+                    .duration(duration).seed(seeds[run]).engine(engine).build());
+            simulator.setEventSink(EventSink.NONE);
+            double average;
+            try {
+                average = simulator.simulate();
+            } catch(EmptyBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            row.append(simulator.getTotalServiceTime()).append(',').append(simulator.getTotalPacketsArrived())
+                    .append(',').append(average).append(',').append(simulator.getPacketsDropped());
+            LatencyHistogram serviceTimes = simulator.getMetrics().getServiceTimes();
+            row.append(',').append(serviceTimes.getValueAtPercentile(50))
+                    .append(',').append(serviceTimes.getValueAtPercentile(99))
+                    .append(',').append(serviceTimes.getValueAtPercentile(99.9))
+                    .append(',').append(serviceTimes.getMax());
+        }
+
+        synchronized(out) {
+            out.println(row);
+        }
+    }
+
+    /**
+     * Splits a range of runs in half until each task holds a single run.
+     */
+    private class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        SweepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                run(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(from, middle), new SweepTask(middle, to));
+        }
+    }
+
+    /**
+     * Runs every configuration of the sweep on the given number of threads and writes the CSV.
+     *
+     * @param threads
+     * 		Number of worker threads.
+     * */
+    public void runAll(int threads) {
+        out.println(CSV_HEADER);
+        if(size() > 0) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new SweepTask(0, size()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * The main method reads the sweep from the command line arguments and writes the results as CSV.
+     *
+     * @param args
+     * 		Command line arguments in the form key=value.
+     * */
+    public static void main(String[] args) {
+        try {
+            Properties config = BatchSimulator.readConfig(args);
+            int threads = BatchSimulator.getInt(config, "threads", Runtime.getRuntime().availableProcessors());
+            if(threads == 0)
+                throw new IllegalArgumentException("Invalid value for threads: 0. Please enter a positive integer.");
+            String output = config.getProperty("output");
+
+            Writer out = (output == null) ? new OutputStreamWriter(System.out) : new FileWriter(output);
+            try {
+                new SweepRunner(config, out).runAll(threads);
+            } finally {
+                if(output == null)
+                    out.flush();
+                else
+                    out.close();
+            }
+        } catch(IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
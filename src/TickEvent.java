@@ -0,0 +1,39 @@
+/**
+ * The TickEvent class is a JDK Flight Recorder event covering a run of consecutive simulation units of
+ * a Simulator. Its duration is the wall-clock time those units took, and its counts are the packets
+ * that arrived, were delivered and were dropped in them.
+ *
+ * @author Zhen Wei Liao
+ **/
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("PacketSimulator.Tick")
+@Label("Simulation Units")
+@Category("Packet Simulator")
+@Description("Consecutive simulation units of a Simulator, sampled every tickEvery units")
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event {
+
+    @Label("First Simulation Unit")
+    int firstUnit;
+
+    @Label("Last Simulation Unit")
+    int lastUnit;
+
+    @Label("Packets Arrived")
+    long packetsArrived;
+
+    @Label("Packets Delivered")
+    long packetsDelivered;
+
+    @Label("Packets Dropped")
+    long packetsDropped;
+
+    @Label("Dispatcher Backlog")
+    @Description("Packets the dispatcher held at the start of the dispatch in the last simulation unit")
+    int dispatcherBacklog;
+}
@@ -0,0 +1,542 @@
+/**
+ * The Topology class describes a network of routers connected by one-way links. Each link can carry
+ * a limited number of packets per simulation unit (its bandwidth) and takes a fixed number of
+ * simulation units to cross (its latency). Packets enter the network at the ingress routers and
+ * leave it at one of the destination routers.
+ *
+ * <p>The links are kept in flat arrays grouped by the router they leave from, and the routing table
+ * of every router is a single int per destination: the link on the path of lowest total latency to
+ * that destination. Both are computed once, so forwarding a packet is an array lookup.
+ *
+ * <p>A topology file has one entry per line; routers are numbered from 1 and <code>#</code> starts a comment:
+ * <pre>
+ * nodes 4
+ * ingress 1 2
+ * destination 4
+ * link 1 3 2 1       # from to bandwidth latency
+ * duplex 2 3 2 1     # a link in each direction
+ * link 3 4 4 2
+ * </pre>
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class Topology {
+
+    private final int numNodes;
+    private final int[] ingress, destinations;
+    //links leaving router n are the positions in [linkStart[n], linkStart[n + 1])
+    private final int[] linkStart, linkFrom, linkTo, linkBandwidth, linkLatency;
+    //link taken by router n toward destination d, at n * destinations.length + d; -1 if there is none
+    private final int[] nextLink;
+    //position of each router in destinations, -1 if it is not a destination
+    private final int[] destinationOf;
+    private final int maxLatency;
+
+    /**
+     * Constructor creates a Topology and computes the routing table of every router.
+     * Routers are numbered from 0.
+     *
+     * @param numNodes
+     * 		Number of routers.
+     *
+     * @param ingress
+     * 		Routers at which packets enter the network.
+     *
+     * @param destinations
+     * 		Routers at which packets leave the network.
+     *
+     * @param from
+     * 		Router each link leaves from.
+     *
+     * @param to
+     * 		Router each link goes to.
+     *
+     * @param bandwidth
+     * 		Maximum number of packets each link carries per simulation unit.
+     *
+     * @param latency
+     * 		Number of simulation units it takes to cross each link.
+     *
+     * @throws IllegalArgumentException
+     * 		when a router does not exist, a link has no bandwidth or latency, or there is no ingress or destination.
+     * */
+    public Topology(int numNodes, int[] ingress, int[] destinations, int[] from, int[] to, int[] bandwidth,
+                    int[] latency) throws IllegalArgumentException {
+        if(numNodes <= 0)
+            throw new IllegalArgumentException("A topology needs at least one router.");
+        if(ingress.length == 0 || destinations.length == 0)
+            throw new IllegalArgumentException("A topology needs at least one ingress and one destination.");
+        if(from.length != to.length || from.length != bandwidth.length || from.length != latency.length)
+            throw new IllegalArgumentException("Every link needs a source, a target, a bandwidth and a latency.");
+
+        this.numNodes = numNodes;
+        this.ingress = ingress.clone();
+        this.destinations = destinations.clone();
+        destinationOf = new int[numNodes];
+        Arrays.fill(destinationOf, -1);
+        for(int node : this.ingress)
+            checkNode(node);
+        for(int d = 0; d < this.destinations.length; d++) {
+            checkNode(this.destinations[d]);
+            if(destinationOf[this.destinations[d]] != -1)
+                throw new IllegalArgumentException("Router " + (this.destinations[d] + 1) + " is a destination twice.");
+            destinationOf[this.destinations[d]] = d;
+        }
+
+        //group the links by the router they leave from, keeping their order within a router
+        int numLinks = from.length, max = 0;
+        linkStart = new int[numNodes + 1];
+        for(int l = 0; l < numLinks; l++) {
+            checkNode(from[l]);
+            checkNode(to[l]);
+            if(bandwidth[l] <= 0 || latency[l] <= 0)
+                throw new IllegalArgumentException("Link " + (from[l] + 1) + " -> " + (to[l] + 1) +
+                        " needs a positive bandwidth and latency.");
+            linkStart[from[l] + 1]++;
+            max = Math.max(max, latency[l]);
+        }
+        for(int n = 0; n < numNodes; n++)
+            linkStart[n + 1] += linkStart[n];
+        maxLatency = max;
+
+        linkFrom = new int[numLinks];
+        linkTo = new int[numLinks];
+        linkBandwidth = new int[numLinks];
+        linkLatency = new int[numLinks];
+        int[] next = Arrays.copyOf(linkStart, numNodes);
+        for(int l = 0; l < numLinks; l++) {
+            int position = next[from[l]]++;
+            linkFrom[position] = from[l];
+            linkTo[position] = to[l];
+            linkBandwidth[position] = bandwidth[l];
+            linkLatency[position] = latency[l];
+        }
+
+        nextLink = new int[numNodes * this.destinations.length];
+        computeRoutes();
+    }
+
+    /**
+     * Checks that a router exists.
+     *
+     * @param node
+     * 		Router number, starting from 0.
+     *
+     * @throws IllegalArgumentException
+     * 		when the router does not exist.
+     * */
+    private void checkNode(int node) throws IllegalArgumentException {
+        if(node < 0 || node >= numNodes)
+            throw new IllegalArgumentException("Router " + (node + 1) + " does not exist. Routers are numbered from 1 to "
+                    + numNodes + ".");
+    }
+
+    /**
+     * Fills the routing tables with a shortest path search from every destination along the links
+     * in reverse. Among paths of the same latency the link listed first is taken.
+     * */
+    private void computeRoutes() {
+        int numLinks = linkTo.length, numDestinations = destinations.length;
+        //links arriving at router n are incoming[incomingStart[n] .. incomingStart[n + 1])
+        int[] incomingStart = new int[numNodes + 1], incoming = new int[numLinks];
+        for(int l = 0; l < numLinks; l++)
+            incomingStart[linkTo[l] + 1]++;
+        for(int n = 0; n < numNodes; n++)
+            incomingStart[n + 1] += incomingStart[n];
+        int[] next = Arrays.copyOf(incomingStart, numNodes);
+        for(int l = 0; l < numLinks; l++)
+            incoming[next[linkTo[l]]++] = l;
+
+        long[] distance = new long[numNodes];
+        //min-heap of routers by distance, then router number, in two parallel arrays so a distance of any
+        //length keeps its order; stale entries are skipped when polled
+        long[] heapDistance = new long[numLinks + 1];
+        int[] heapNode = new int[numLinks + 1];
+        for(int d = 0; d < numDestinations; d++) {
+            Arrays.fill(distance, Long.MAX_VALUE);
+            for(int n = 0; n < numNodes; n++)
+                nextLink[n * numDestinations + d] = -1;
+
+            int target = destinations[d], size = 0;
+            distance[target] = 0;
+            heapDistance[size] = 0;
+            heapNode[size++] = target;
+            while(size > 0) {
+                int node = heapNode[0];
+                long nodeDistance = heapDistance[0];
+                size--;
+                heapDistance[0] = heapDistance[size];
+                heapNode[0] = heapNode[size];
+                siftDown(heapDistance, heapNode, size);
+                if(nodeDistance != distance[node])
+                    continue;
+
+                for(int i = incomingStart[node]; i < incomingStart[node + 1]; i++) {
+                    int link = incoming[i], previous = linkFrom[link];
+                    long candidate = nodeDistance + linkLatency[link];
+                    int entry = previous * numDestinations + d;
+                    if(candidate < distance[previous]) {
+                        distance[previous] = candidate;
+                        nextLink[entry] = link;
+                        heapDistance[size] = candidate;
+                        heapNode[size++] = previous;
+                        siftUp(heapDistance, heapNode, size - 1);
+                    } else if(candidate == distance[previous] && link < nextLink[entry]) {
+                        nextLink[entry] = link;
+                    }
+                }
+            }
+            nextLink[target * numDestinations + d] = -1;
+        }
+    }
+
+    /**
+     * Determines if a heap entry comes before another: the smaller distance first, then the lower router number.
+     *
+     * @param distance
+     * 		Distance of each heap entry.
+     *
+     * @param node
+     * 		Router of each heap entry.
+     *
+     * @param i
+     * 		Position of the first entry.
+     *
+     * @param j
+     * 		Position of the second entry.
+     *
+     * @return
+     * 		true if entry i comes before entry j, false otherwise.
+     * */
+    private static boolean before(long[] distance, int[] node, int i, int j) {
+        return distance[i] < distance[j] || (distance[i] == distance[j] && node[i] < node[j]);
+    }
+
+    private static void swap(long[] distance, int[] node, int i, int j) {
+        long d = distance[i];
+        distance[i] = distance[j];
+        distance[j] = d;
+        int n = node[i];
+        node[i] = node[j];
+        node[j] = n;
+    }
+
+    private static void siftUp(long[] distance, int[] node, int i) {
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!before(distance, node, i, parent))
+                break;
+            swap(distance, node, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] distance, int[] node, int size) {
+        int i = 0;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && before(distance, node, child + 1, child))
+                child++;
+            if(!before(distance, node, child, i))
+                break;
+            swap(distance, node, i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Reads a Topology from a topology file.
+     *
+     * @param path
+     * 		Path of the topology file.
+     *
+     * @throws IOException
+     * 		when the file cannot be read.
+     *
+     * @throws IllegalArgumentException
+     * 		when a line of the file is invalid.
+     *
+     * @return
+     * 		Topology described by the file.
+     * */
+    public static Topology load(String path) throws IOException, IllegalArgumentException {
+        int numNodes = -1, numLinks = 0, lineNumber = 0;
+        int[] ingress = new int[0], destinations = new int[0];
+        int[] from = new int[16], to = new int[16], bandwidth = new int[16], latency = new int[16];
+
+        try(BufferedReader in = new BufferedReader(new FileReader(path))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if(comment >= 0)
+                    line = line.substring(0, comment);
+                line = line.trim();
+                if(line.isEmpty())
+                    continue;
+
+                String[] words = line.split("\\s+");
+                int[] values = new int[words.length - 1];
+                try {
+                    for(int i = 1; i < words.length; i++)
+                        values[i - 1] = Integer.parseInt(words[i]);
+                } catch(NumberFormatException e) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": expected numbers after " + words[0] + ".");
+                }
+
+                boolean duplex = words[0].equals("duplex");
+                switch(words[0]) {
+                    case "nodes":
+                        if(values.length != 1)
+                            throw new IllegalArgumentException(path + ":" + lineNumber + ": expected nodes <count>.");
+                        numNodes = values[0];
+                        break;
+                    case "ingress":
+                        ingress = appendNodes(ingress, values);
+                        break;
+                    case "destination":
+                        destinations = appendNodes(destinations, values);
+                        break;
+                    case "link":
+                    case "duplex":
+                        if(values.length != 4)
+                            throw new IllegalArgumentException(path + ":" + lineNumber + ": expected " + words[0] +
+                                    " <from> <to> <bandwidth> <latency>.");
+                        if(numLinks + 2 > from.length) {
+                            from = Arrays.copyOf(from, from.length * 2);
+                            to = Arrays.copyOf(to, to.length * 2);
+                            bandwidth = Arrays.copyOf(bandwidth, bandwidth.length * 2);
+                            latency = Arrays.copyOf(latency, latency.length * 2);
+                        }
+                        for(int direction = 0; direction < (duplex ? 2 : 1); direction++) {
+                            from[numLinks] = values[direction] - 1;
+                            to[numLinks] = values[1 - direction] - 1;
+                            bandwidth[numLinks] = values[2];
+                            latency[numLinks] = values[3];
+                            numLinks++;
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException(path + ":" + lineNumber + ": unknown entry " + words[0] +
+                                ". Expected nodes, ingress, destination, link or duplex.");
+                }
+            }
+        }
+
+        if(numNodes < 0)
+            throw new IllegalArgumentException(path + ": missing nodes <count>.");
+        return new Topology(numNodes, ingress, destinations, Arrays.copyOf(from, numLinks),
+                Arrays.copyOf(to, numLinks), Arrays.copyOf(bandwidth, numLinks), Arrays.copyOf(latency, numLinks));
+    }
+
+    /**
+     * Appends router numbers, given from 1, to a list of routers numbered from 0.
+     *
+     * @param nodes
+     * 		Routers numbered from 0.
+     *
+     * @param values
+     * 		Routers numbered from 1.
+     *
+     * @return
+     * 		Both lists of routers, numbered from 0.
+     * */
+    private static int[] appendNodes(int[] nodes, int[] values) {
+        int[] result = Arrays.copyOf(nodes, nodes.length + values.length);
+        for(int i = 0; i < values.length; i++)
+            result[nodes.length + i] = values[i] - 1;
+        return result;
+    }
+
+    /**
+     * Returns the number of routers.
+     *
+     * @return
+     * 		Number of routers.
+     * */
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Returns the number of links.
+     *
+     * @return
+     * 		Number of links.
+     * */
+    public int getNumLinks() {
+        return linkTo.length;
+    }
+
+    /**
+     * Returns the number of routers at which packets enter the network.
+     *
+     * @return
+     * 		Number of ingress routers.
+     * */
+    public int getNumIngress() {
+        return ingress.length;
+    }
+
+    /**
+     * Returns an ingress router.
+     *
+     * @param position
+     * 		Position of the ingress router, in the range [0, getNumIngress()).
+     *
+     * @return
+     * 		Router number, starting from 0.
+     * */
+    public int getIngress(int position) {
+        return ingress[position];
+    }
+
+    /**
+     * Returns the number of routers at which packets leave the network.
+     *
+     * @return
+     * 		Number of destinations.
+     * */
+    public int getNumDestinations() {
+        return destinations.length;
+    }
+
+    /**
+     * Returns a destination router.
+     *
+     * @param destination
+     * 		Position of the destination, in the range [0, getNumDestinations()).
+     *
+     * @return
+     * 		Router number, starting from 0.
+     * */
+    public int getDestination(int destination) {
+        return destinations[destination];
+    }
+
+    /**
+     * Returns the position of a router among the destinations.
+     *
+     * @param node
+     * 		Router number, starting from 0.
+     *
+     * @return
+     * 		Position of the destination, or -1 if the router is not a destination.
+     * */
+    public int destinationOf(int node) {
+        return destinationOf[node];
+    }
+
+    /**
+     * Returns the router a link goes to.
+     *
+     * @param link
+     * 		Position of the link.
+     *
+     * @return
+     * 		Router number, starting from 0.
+     * */
+    public int getLinkTo(int link) {
+        return linkTo[link];
+    }
+
+    /**
+     * Returns the router a link leaves from.
+     *
+     * @param link
+     * 		Position of the link.
+     *
+     * @return
+     * 		Router number, starting from 0.
+     * */
+    public int getLinkFrom(int link) {
+        return linkFrom[link];
+    }
+
+    /**
+     * Returns the maximum number of packets a link carries per simulation unit.
+     *
+     * @param link
+     * 		Position of the link.
+     *
+     * @return
+     * 		Bandwidth of the link.
+     * */
+    public int getLinkBandwidth(int link) {
+        return linkBandwidth[link];
+    }
+
+    /**
+     * Returns the number of simulation units it takes to cross a link.
+     *
+     * @param link
+     * 		Position of the link.
+     *
+     * @return
+     * 		Latency of the link.
+     * */
+    public int getLinkLatency(int link) {
+        return linkLatency[link];
+    }
+
+    /**
+     * Returns the largest latency of all links.
+     *
+     * @return
+     * 		Largest latency, or 0 if there is no link.
+     * */
+    public int getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * Returns the link a router sends a packet on toward a destination.
+     *
+     * @param node
+     * 		Router number, starting from 0.
+     *
+     * @param destination
+     * 		Position of the destination.
+     *
+     * @return
+     * 		Position of the link, or -1 if the router is the destination or cannot reach it.
+     * */
+    public int nextLink(int node, int destination) {
+        return nextLink[node * destinations.length + destination];
+    }
+
+    /**
+     * Determines if a packet at a router can reach a destination.
+     *
+     * @param node
+     * 		Router number, starting from 0.
+     *
+     * @param destination
+     * 		Position of the destination.
+     *
+     * @return
+     * 		true if the router is the destination or has a path to it, false otherwise.
+     * */
+    public boolean hasRoute(int node, int destination) {
+        return destinations[destination] == node || nextLink(node, destination) != -1;
+    }
+
+    /**
+     * Returns the string representation of the Topology.
+     *
+     * @return
+     * 		Number of routers, links, ingress routers and destinations.
+     * */
+    @Override
+    public String toString() {
+        return "Topology[nodes=" + numNodes + ", links=" + linkTo.length + ", ingress=" + ingress.length +
+                ", destinations=" + destinations.length + "]";
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * The TopologySimulator class sends packets hop by hop through the routers of a Topology. Packets
+ * arrive at the dispatcher as in the Simulator, go to the least loaded ingress router with a route to
+ * their destination, and every router forwards the packet at its front on the link its routing table
+ * gives for the packet's destination. A packet reaching a full router is dropped.
+ *
+ * <p>Only routers holding packets and packets travelling on links are visited in a simulation unit,
+ * and simulation units in which nothing is in the network and nothing arrives are skipped, so the
+ * cost of a run does not depend on the number of idle routers.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class TopologySimulator {
+
+    private final Topology topology;
+    private final SimulationConfig config;
+    private final PacketStore store;
+    private final Router dispatcher;
+    private final Router[] nodes;
+    private final RouterLoadIndex ingressIndex;
+    //per destination, the positions of the ingress routers with a route to it, or null when every ingress has one
+    private final int[][] reachingIngress;
+    //routers holding packets, and the routers taken out of it in the current simulation unit
+    private final ReadySet activeNodes;
+    private final int[] forwarding;
+    //simulation unit in which each link was last used, and the packets sent on it in that unit
+    private final int[] linkTick, linkUsed;
+    //packets travelling on links and the router they go to, grouped by the simulation unit in which they get there
+    private final int[][] wheelSlots, wheelNodes;
+    private final int[] wheelCount;
+    private final int wheelMask;
+    private int inFlight;
+    private final ArrivalSource arrivals;
+    private final RandomSource destinationRandom;
+    private final SimulationMetrics metrics;
+    private final int duration;
+    private int packetCount = 0;
+    private EventSink events = new PrintEventSink(System.out, EventLevel.PACKET);
+
+    /**
+     * Constructor creates a TopologySimulator. The arrival probability, packet counts and sizes, buffer
+     * size, duration and seed are taken from the settings; the number of routers and the bandwidth come
+     * from the Topology instead.
+     *
+     * @param config
+     * 		Settings of the simulation.
+     *
+     * @param topology
+     * 		Routers and links of the network.
+     * */
+    public TopologySimulator(SimulationConfig config, Topology topology) {
+        this.config = config;
+        this.topology = topology;
+        this.duration = config.getDuration();
+        int numNodes = topology.getNumNodes(), bufferSize = config.getMaxBufferSize();
+
+        long inFlightPackets = config.getMaxPackets() + (long) numNodes * bufferSize;
+        store = new PacketStore((int) Math.min(inFlightPackets, 1 << 20));
+        dispatcher = new Router(config.getMaxPackets(), store);
+        nodes = new Router[numNodes];
+        for(int n = 0; n < numNodes; n++)
+            nodes[n] = new Router(bufferSize, store);
+        ArrayList<Router> ingress = new ArrayList<>();
+        for(int i = 0; i < topology.getNumIngress(); i++)
+            ingress.add(nodes[topology.getIngress(i)]);
+        ingressIndex = new RouterLoadIndex(ingress);
+        reachingIngress = new int[topology.getNumDestinations()][];
+        for(int d = 0; d < reachingIngress.length; d++) {
+            int[] reaching = new int[topology.getNumIngress()];
+            int count = 0;
+            for(int i = 0; i < reaching.length; i++)
+                if(topology.hasRoute(topology.getIngress(i), d))
+                    reaching[count++] = i;
+            if(count < reaching.length)
+                reachingIngress[d] = Arrays.copyOf(reaching, count);
+        }
+
+        activeNodes = new ReadySet(numNodes);
+        forwarding = new int[numNodes];
+        linkTick = new int[topology.getNumLinks()];
+        linkUsed = new int[topology.getNumLinks()];
+
+        int wheelSize = Integer.highestOneBit(Math.max(topology.getMaxLatency(), 1)) * 2;
+        wheelMask = wheelSize - 1;
+        wheelSlots = new int[wheelSize][16];
+        wheelNodes = new int[wheelSize][16];
+        wheelCount = new int[wheelSize];
+
+        metrics = new SimulationMetrics(numNodes, bufferSize);
+        RandomSource random = new RandomSource(config.getSeed());
+        destinationRandom = random.split();
+        arrivals = config.getArrivals().create(config, random);
+    }
+
+    /**
+     * Returns the statistics of this TopologySimulator, with one queue depth histogram per router.
+     *
+     * @return
+     * 		SimulationMetrics of this TopologySimulator.
+     * */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the network of this TopologySimulator.
+     *
+     * @return
+     * 		Topology of this TopologySimulator.
+     * */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the settings of this TopologySimulator.
+     *
+     * @return
+     * 		SimulationConfig of this TopologySimulator.
+     * */
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the EventSink that receives everything this TopologySimulator reports.
+     *
+     * @return
+     * 		EventSink of this TopologySimulator.
+     * */
+    public EventSink getEventSink() {
+        return events;
+    }
+
+    /**
+     * Modifier. Changes where this TopologySimulator reports arriving, sent, dropped and delivered packets.
+     *
+     * @param events
+     * 		EventSink receiving the reports.
+     * */
+    public void setEventSink(EventSink events) {
+        this.events = events;
+    }
+
+    /**
+     * Sends a packet on a link. It reaches the router at the other end after the latency of the link.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @param link
+     * 		Position of the link.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void sendOnLink(int slot, int link, int simulationUnit) {
+        int to = topology.getLinkTo(link), bucket = (simulationUnit + topology.getLinkLatency(link)) & wheelMask;
+        int count = wheelCount[bucket];
+        if(count == wheelSlots[bucket].length) {
+            wheelSlots[bucket] = Arrays.copyOf(wheelSlots[bucket], count * 2);
+            wheelNodes[bucket] = Arrays.copyOf(wheelNodes[bucket], count * 2);
+        }
+        wheelSlots[bucket][count] = slot;
+        wheelNodes[bucket][count] = to;
+        wheelCount[bucket] = count + 1;
+        inFlight++;
+        events.packetSent(store.getId(slot), to + 1);
+    }
+
+    /**
+     * Places a packet at a router: it is delivered if the router is its destination, dropped if the
+     * router is full, and queued otherwise.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @param node
+     * 		Router number, starting from 0.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void arriveAt(int slot, int node, int simulationUnit) {
+        if(topology.destinationOf(node) == store.getDestination(slot)) {
+            int serviceTime = simulationUnit - store.getTimeArrived(slot);
+            metrics.packetDelivered(simulationUnit, serviceTime);
+            events.packetDelivered(store.getId(slot), serviceTime);
+            store.release(slot);
+        } else if(nodes[node].isFull()) {
+            drop(slot, simulationUnit);
+        } else {
+            nodes[node].enqueueSlot(slot);
+            metrics.queueDepthChanged(node, nodes[node].size(), simulationUnit);
+            activeNodes.add(node);
+        }
+    }
+
+    /**
+     * Drops a packet.
+     *
+     * @param slot
+     * 		Slot holding the packet.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void drop(int slot, int simulationUnit) {
+        metrics.packetDropped(simulationUnit);
+        events.packetDropped(store.getId(slot));
+        store.release(slot);
+    }
+
+    /**
+     * Places every packet whose link ends in this simulation unit at the router the link goes to.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void packetsLanding(int simulationUnit) {
+        int bucket = simulationUnit & wheelMask, count = wheelCount[bucket];
+        int[] slots = wheelSlots[bucket], to = wheelNodes[bucket];
+        for(int i = 0; i < count; i++)
+            arriveAt(slots[i], to[i], simulationUnit);
+        wheelCount[bucket] = 0;
+        inFlight -= count;
+    }
+
+    /**
+     * Returns the least loaded ingress router that can still receive a packet and has a route to a
+     * destination. Ingress routers holding the same number of packets are chosen in order of position.
+     *
+     * @param destination
+     * 		Position of the destination.
+     *
+     * @return
+     * 		Position of the ingress router, or -1 if every ingress router with a route to the destination is full.
+     * */
+    private int leastLoadedIngress(int destination) {
+        int[] reaching = reachingIngress[destination];
+        if(reaching == null)
+            return ingressIndex.leastLoaded();
+        int best = -1, bestSize = Integer.MAX_VALUE;
+        for(int position : reaching) {
+            Router router = nodes[topology.getIngress(position)];
+            if(!router.isFull() && router.size() < bestSize) {
+                best = position;
+                bestSize = router.size();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Generates the packets arriving at the dispatcher and sends each of them to the least loaded ingress
+     * router with a route to its destination. Packets are dropped if every such ingress router is full or
+     * no ingress router can reach the destination.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void packetsArriving(int simulationUnit) throws EmptyBufferException {
+        while(arrivals.nextTime() <= simulationUnit) {
+            int size = arrivals.take(), id = ++packetCount;
+            int slot = store.allocate(id, size, simulationUnit, 0);
+            store.setDestination(slot, destinationRandom.nextInt(0, topology.getNumDestinations() - 1));
+            dispatcher.enqueueSlot(slot);
+            metrics.packetArrived();
+            events.packetArrived(id, size);
+        }
+        if(dispatcher.isEmpty())
+            events.noPacketsArrived();
+
+        while(!dispatcher.isEmpty()) {
+            int slot = dispatcher.dequeueSlot(), position = leastLoadedIngress(store.getDestination(slot));
+            if(position == -1) {
+                drop(slot, simulationUnit);
+            } else {
+                int node = topology.getIngress(position);
+                events.packetSent(store.getId(slot), node + 1);
+                arriveAt(slot, node, simulationUnit);
+            }
+        }
+    }
+
+    /**
+     * Every router holding packets sends its front packets on the links toward their destinations, in
+     * order of router number, until a link has used its bandwidth for this simulation unit. The packet
+     * behind a blocked packet waits as well.
+     *
+     * @param simulationUnit
+     * 		Current simulation unit.
+     * */
+    private void packetsForwarding(int simulationUnit) throws EmptyBufferException {
+        int count = 0;
+        while(!activeNodes.isEmpty())
+            forwarding[count++] = activeNodes.poll();
+
+        for(int i = 0; i < count; i++) {
+            int node = forwarding[i];
+            Router router = nodes[node];
+            int before = router.size();
+            while(!router.isEmpty()) {
+                int link = topology.nextLink(node, store.getDestination(router.peekSlot()));
+                if(linkTick[link] != simulationUnit) {
+                    linkTick[link] = simulationUnit;
+                    linkUsed[link] = 0;
+                }
+                if(linkUsed[link] == topology.getLinkBandwidth(link))
+                    break;
+                linkUsed[link]++;
+                sendOnLink(router.dequeueSlot(), link, simulationUnit);
+            }
+            if(router.size() != before)
+                metrics.queueDepthChanged(node, router.size(), simulationUnit);
+            if(!router.isEmpty())
+                activeNodes.add(node);
+        }
+    }
+
+    /**
+     * Run and output the process that indicates how the packets are being sent through the network.
+     *
+     * @return
+     * 		Average time each packet is in the network.
+     * */
+    public double simulate() throws EmptyBufferException {
+        int time = 1;
+        while(time <= duration) {
+            events.tickStarted(time);
+            packetsLanding(time);
+            packetsArriving(time);
+            packetsForwarding(time);
+
+            if(activeNodes.isEmpty() && inFlight == 0)
+                time = (int) Math.max(time + 1, Math.min(arrivals.nextTime(), duration + 1L));
+            else
+                time++;
+        }
+        metrics.finish(duration);
+        events.flush();
+        if(metrics.getPacketsDelivered() != 0)
+            return metrics.getAverageServiceTime();
+
+        events.noPacketsDelivered();
+        return 0;
+    }
+
+    /**
+     * Activates the TopologySimulator and display appropriate statistics.
+     *
+     * @param simulator
+     *      TopologySimulator being activate.
+     * */
+    static void simulate(TopologySimulator simulator) throws EmptyBufferException {
+        EventSink events = simulator.getEventSink();
+        SimulationMetrics metrics = simulator.getMetrics();
+        try {
+            double average = simulator.simulate();
+            events.summary(metrics.getTotalServiceTime(), metrics.getPacketsDelivered(), average,
+                    metrics.getPacketsDropped());
+            events.serviceTimes(metrics.getServiceTimes());
+        } finally {
+            events.flush();
+        }
+    }
+}
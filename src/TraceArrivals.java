@@ -0,0 +1,158 @@
+/**
+ * The TraceArrivals class is an ArrivalSource replaying the packets of a binary trace file, such as
+ * one written by TraceWriter. The file is memory-mapped in windows of up to 1 GB, so files of any size
+ * are read without copying them into the Java heap and without allocating memory per packet.
+ *
+ * <p>A trace file starts with a {@value #HEADER_SIZE} byte header, followed by one {@value #RECORD_SIZE}
+ * byte record per packet in order of arrival. Every number is little-endian.
+ * <pre>
+ * header: magic "PKTTRACE" (8 bytes), version (int), record size (int),
+ *         number of records (long), largest number of packets arriving in one simulation unit (int), unused (int)
+ * record: simulation unit of arrival (int), packet size (int)
+ * </pre>
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class TraceArrivals implements ArrivalSource, Checkpointable, AutoCloseable {
+
+    public static final long MAGIC = 0x4543415254544b50L; //"PKTTRACE" read as a little-endian long
+    public static final int VERSION = 1, HEADER_SIZE = 32, RECORD_SIZE = 8;
+    //records mapped at once; a mapping cannot exceed 2 GB
+    private static final long WINDOW_RECORDS = (1L << 30) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long recordCount;
+    private final int maxPacketsPerUnit;
+    private MappedByteBuffer window;
+    //first record of the mapped window, and the next record to take
+    private long windowStart, next;
+    private int windowRecords, lastTime;
+
+    /**
+     * Constructor opens a trace file and checks its header.
+     *
+     * @param path
+     * 		Path of the trace file.
+     *
+     * @throws IOException
+     * 		when the file cannot be read.
+     *
+     * @throws IllegalArgumentException
+     * 		when the file is not a trace file or is shorter than its header says.
+     * */
+    public TraceArrivals(String path) throws IOException, IllegalArgumentException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            if(channel.size() < HEADER_SIZE)
+                throw new IllegalArgumentException(path + " is not a trace file.");
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if(header.getLong(0) != MAGIC || header.getInt(8) != VERSION || header.getInt(12) != RECORD_SIZE)
+                throw new IllegalArgumentException(path + " is not a version " + VERSION + " trace file.");
+            recordCount = header.getLong(16);
+            maxPacketsPerUnit = header.getInt(24);
+            if(recordCount < 0 || channel.size() < HEADER_SIZE + recordCount * RECORD_SIZE)
+                throw new IllegalArgumentException(path + " is shorter than its header says.");
+            map(0);
+        } catch(IOException | IllegalArgumentException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the window of records starting at the given record.
+     *
+     * @param record
+     * 		First record of the window.
+     * */
+    private void map(long record) throws IOException {
+        windowStart = record;
+        windowRecords = (int) Math.min(WINDOW_RECORDS, recordCount - record);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + record * RECORD_SIZE,
+                (long) windowRecords * RECORD_SIZE);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the number of packets in the trace.
+     *
+     * @return
+     * 		Number of packets.
+     * */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the largest number of packets arriving in one simulation unit. The dispatcher must be able
+     * to hold that many packets.
+     *
+     * @return
+     * 		Largest number of packets in one simulation unit.
+     * */
+    public int getMaxPacketsPerUnit() {
+        return maxPacketsPerUnit;
+    }
+
+    @Override
+    public int nextTime() {
+        if(next == recordCount)
+            return Integer.MAX_VALUE;
+        if(next - windowStart == windowRecords) {
+            try {
+                map(next);
+            } catch(IOException e) {
+                throw new IllegalStateException("Cannot read the trace file.", e);
+            }
+        }
+        return window.getInt((int) (next - windowStart) * RECORD_SIZE);
+    }
+
+    @Override
+    public int take() {
+        int time = nextTime();
+        if(time < lastTime)
+            throw new IllegalStateException("Trace record " + next + " arrives before the record in front of it.");
+        lastTime = time;
+        int size = window.getInt((int) (next - windowStart) * RECORD_SIZE + 4);
+        next++;
+        return size;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(next);
+        out.writeInt(lastTime);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        long record = in.readLong();
+        if(record < 0 || record > recordCount)
+            throw new IOException("The checkpoint is at record " + record + ", but the trace has " + recordCount + ".");
+        next = record;
+        lastTime = in.readInt();
+        map(Math.min(next, Math.max(recordCount - 1, 0)));
+    }
+
+    /**
+     * Closes the trace file.
+     *
+     * @throws IOException
+     * 		when the file cannot be closed.
+     * */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
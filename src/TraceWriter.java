@@ -0,0 +1,111 @@
+/**
+ * The TraceWriter class is an ArrivalSource that passes on the packets of another ArrivalSource and
+ * records each of them in a trace file, so that the run can be replayed exactly with TraceArrivals.
+ * Records are collected in a direct buffer and written in large blocks; nothing is allocated per packet.
+ * The header is completed when the writer is closed.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class TraceWriter implements ArrivalSource, AutoCloseable {
+
+    private final ArrivalSource source;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private long recordCount;
+    //simulation unit of the last packet, the packets recorded in it, and the most packets in any unit
+    private int lastTime, packetsInUnit, maxPacketsPerUnit;
+
+    /**
+     * Constructor creates a trace file, replacing any file at the path.
+     *
+     * @param source
+     * 		ArrivalSource whose packets are recorded.
+     *
+     * @param path
+     * 		Path of the trace file.
+     *
+     * @throws IOException
+     * 		when the file cannot be created.
+     * */
+    public TraceWriter(ArrivalSource source, String path) throws IOException {
+        this.source = source;
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        //room for the header, written on close
+        buffer.position(TraceArrivals.HEADER_SIZE);
+    }
+
+    @Override
+    public int nextTime() {
+        return source.nextTime();
+    }
+
+    @Override
+    public int take() {
+        int time = source.nextTime(), size = source.take();
+        if(time != lastTime) {
+            lastTime = time;
+            packetsInUnit = 0;
+        }
+        maxPacketsPerUnit = Math.max(maxPacketsPerUnit, ++packetsInUnit);
+
+        if(buffer.remaining() < TraceArrivals.RECORD_SIZE)
+            flush();
+        buffer.putInt(time).putInt(size);
+        recordCount++;
+        return size;
+    }
+
+    /**
+     * Writes the collected records to the file.
+     * */
+    private void flush() {
+        buffer.flip();
+        try {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        } catch(IOException e) {
+            throw new IllegalStateException("Cannot write the trace file.", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of packets recorded so far.
+     *
+     * @return
+     * 		Number of packets.
+     * */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the remaining records and the header, and closes the trace file.
+     *
+     * @throws IOException
+     * 		when the file cannot be written.
+     * */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(TraceArrivals.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(TraceArrivals.MAGIC).putInt(TraceArrivals.VERSION).putInt(TraceArrivals.RECORD_SIZE)
+                    .putLong(recordCount).putInt(maxPacketsPerUnit).putInt(0).flip();
+            while(header.hasRemaining())
+                channel.write(header, header.position());
+        } catch(IllegalStateException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ * The WarmupDetector class finds, while a simulation runs, where its start-up transient ends, so that
+ * the statistics of the steady state are not biased by the empty network the run starts from.
+ *
+ * <p>Simulation units are grouped into batches recording the arrived, delivered and dropped packets,
+ * the service time and the total queue depth. Once {@value #MAX_BATCHES} batches are full, every pair
+ * is merged into one batch twice as long, so the memory stays fixed however long the run is. At every
+ * merge the MSER rule (Marginal Standard Error Rule) is applied to the batch means of the service time
+ * and of the queue depth: the warm-up is the number of first batches whose removal minimizes the
+ * standard error of the remaining mean. It is accepted once that cut lies in the first half of the
+ * batches for both series and neither series still drifts after it; a cut in the second half, or the
+ * first and last quarters of the remaining batches differing beyond their noise, means the run has not
+ * settled yet. The rule is only applied once a batch holds {@value #MIN_BATCH_SIZE} units: the mean of
+ * a few units is mostly noise, and MSER would then cut in the middle of the transient.
+ *
+ * <p>After the warm-up, the steady-state averages count only the simulation units after it. With a
+ * precision, the run is converged once the confidence interval of the mean service time, from the
+ * batch means after the warm-up, is within that fraction of the mean. The interval assumes independent
+ * batch means, so it is not trusted while the lag-1 autocorrelation of the means is above
+ * {@value #MAX_AUTOCORRELATION}; the batches then keep merging until they are long enough. A narrow
+ * interval is only believed once it holds again after the run has at least doubled in length, with the
+ * later mean inside the earlier interval: rare slow packets, such as those of a starved router, may be
+ * missing from a short stretch that looks precise.
+ *
+ * @author Zhen Wei Liao
+ **/
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class WarmupDetector implements Checkpointable {
+
+    private static final int MAX_BATCHES = 128;
+    //batches after the warm-up needed before the precision is checked
+    private static final int MIN_STEADY_BATCHES = 10;
+    //simulation units per batch before the warm-up is looked for and the precision is checked
+    private static final int MIN_BATCH_SIZE = 64;
+    //largest lag-1 autocorrelation of the steady batch means for the interval to be trusted
+    private static final double MAX_AUTOCORRELATION = 0.2;
+    //standard errors, and fraction of the mean, by which the quarters of a settled series may differ
+    private static final double TREND_ERRORS = 3, TREND_TOLERANCE = 0.01;
+    private static final double CONFIDENCE = 0.95;
+    //statistics kept per batch: arrived, delivered, dropped, service time, queue depth summed over units
+    private static final int ARRIVED = 0, DELIVERED = 1, DROPPED = 2, SERVICE = 3, DEPTH = 4, STATISTICS = 5;
+
+    private final SimulationMetrics metrics;
+    private final double precision;
+    private final long[][] batches = new long[STATISTICS][MAX_BATCHES];
+    //full batches, first unit of the first batch and number of units per batch
+    private int count, firstTick, batchSize = 1;
+    //counters at the start of the current batch, at the end of the last unit seen, and at the end of the warm-up
+    private final long[] batchStart = new long[STATISTICS], last = new long[STATISTICS], warmup = new long[STATISTICS];
+    //last unit whose queue depth is counted, and the queue depth after it
+    private int countedTick;
+    private long lastDepth;
+    //first unit after the warm-up, 0 while it is not detected
+    private int warmupEnd;
+    private boolean converged;
+    //simulation units run, mean service time and half width when the interval was found narrow enough,
+    //0 units while it is not
+    private long candidateTicks;
+    private double candidateMean, candidateHalfWidth;
+    //batch means after the warm-up, reused by every precision check
+    private final double[] steadyMeans = new double[MAX_BATCHES];
+
+    /**
+     * Constructor creates a WarmupDetector for a simulation starting at the given simulation unit.
+     *
+     * @param metrics
+     * 		Statistics of the simulation.
+     *
+     * @param startTick
+     * 		First simulation unit.
+     *
+     * @param precision
+     * 		Relative half width of the service time interval at which the run is converged, or 0 to never converge.
+     * */
+    public WarmupDetector(SimulationMetrics metrics, int startTick, double precision) {
+        this.metrics = metrics;
+        this.precision = precision;
+        firstTick = startTick;
+        countedTick = startTick - 1;
+        read(batchStart);
+        System.arraycopy(batchStart, 0, last, 0, STATISTICS);
+        lastDepth = metrics.getTotalDepth();
+    }
+
+    /**
+     * Reads the cumulative counters from the statistics. The queue depth is counted here, not read.
+     *
+     * @param counters
+     * 		Array receiving the counters.
+     * */
+    private void read(long[] counters) {
+        counters[ARRIVED] = metrics.getPacketsArrived();
+        counters[DELIVERED] = metrics.getPacketsDelivered();
+        counters[DROPPED] = metrics.getPacketsDropped();
+        counters[SERVICE] = metrics.getTotalServiceTime();
+    }
+
+    /**
+     * Records the end of a simulation unit. The simulation units skipped since the last call, by the
+     * event engine, are counted with the queue depth the last call saw.
+     *
+     * @param time
+     * 		Simulation unit completed.
+     * */
+    public void ticked(int time) {
+        //nothing happened in the skipped units, so the counters of the last call still hold for them
+        count(time - 1, lastDepth);
+        read(last);
+        lastDepth = metrics.getTotalDepth();
+        count(time, lastDepth);
+    }
+
+    /**
+     * Counts the simulation units up to the given one at the given queue depth, closing every batch they fill.
+     *
+     * @param upTo
+     * 		Last simulation unit counted.
+     *
+     * @param depth
+     * 		Total queue depth during those units.
+     * */
+    private void count(int upTo, long depth) {
+        while(countedTick < upTo) {
+            int batchEnd = firstTick + (count + 1) * batchSize - 1, end = Math.min(upTo, batchEnd);
+            last[DEPTH] += depth * (end - countedTick);
+            countedTick = end;
+            if(end == batchEnd)
+                closeBatch();
+        }
+    }
+
+    private void closeBatch() {
+        for(int statistic = 0; statistic < STATISTICS; statistic++) {
+            batches[statistic][count] = last[statistic] - batchStart[statistic];
+            batchStart[statistic] = last[statistic];
+        }
+        count++;
+        if(warmupEnd != 0 && precision > 0 && !converged && batchSize >= MIN_BATCH_SIZE)
+            checkPrecision();
+        if(count == MAX_BATCHES) {
+            if(warmupEnd == 0 && batchSize >= MIN_BATCH_SIZE)
+                detect();
+            merge();
+        }
+    }
+
+    /**
+     * Applies the MSER rule to the full batches and ends the warm-up if both series have settled.
+     * */
+    private void detect() {
+        int cut = Math.max(mser(batches[SERVICE], batches[DELIVERED]), mser(batches[DEPTH], null));
+        if(cut > count / 2 || trending(batches[SERVICE], batches[DELIVERED], cut) || trending(batches[DEPTH], null, cut))
+            return;
+        warmupEnd = firstTick + cut * batchSize;
+        for(int statistic = 0; statistic < STATISTICS; statistic++) {
+            long sum = 0;
+            for(int batch = 0; batch < cut; batch++)
+                sum += batches[statistic][batch];
+            //the counters at the start of the batches are those at the end of the previous batches
+            warmup[statistic] = batchStart[statistic] - sumFrom(statistic, 0) + sum;
+        }
+    }
+
+    private long sumFrom(int statistic, int from) {
+        long sum = 0;
+        for(int batch = from; batch < count; batch++)
+            sum += batches[statistic][batch];
+        return sum;
+    }
+
+    /**
+     * Returns the number of first batches whose removal minimizes the marginal standard error of the
+     * weighted mean of the others, looking at cuts up to the last few batches.
+     *
+     * @param sums
+     * 		Sum of the series in each batch.
+     *
+     * @param weights
+     * 		Number of values in each batch, or null when every batch holds batchSize values.
+     *
+     * @return
+     * 		Number of batches to remove.
+     * */
+    private int mser(long[] sums, long[] weights) {
+        double total = 0, totalSquares = 0, totalWeight = 0, best = Double.POSITIVE_INFINITY;
+        int cut = 0;
+        //walk the cuts from the end so the remaining batches are summed as they grow
+        for(int d = count - 1; d >= 0; d--) {
+            double weight = (weights == null) ? batchSize : weights[d];
+            if(weight > 0) {
+                total += sums[d];
+                totalSquares += (double) sums[d] * sums[d] / weight;
+                totalWeight += weight;
+            }
+            if(d > count - 5 || totalWeight == 0)
+                continue;
+            double error = (totalSquares - total * total / totalWeight) / (totalWeight * totalWeight);
+            if(error <= best) {
+                best = error;
+                cut = d;
+            }
+        }
+        return cut;
+    }
+
+    /**
+     * Returns whether a series still drifts after the cut: the means of the first and last quarters of
+     * the remaining batches differ by more than {@value #TREND_ERRORS} standard errors of the batch means
+     * and by more than {@value #TREND_TOLERANCE} of the mean.
+     *
+     * @param sums
+     * 		Sum of the series in each batch.
+     *
+     * @param weights
+     * 		Number of values in each batch, or null when every batch holds batchSize values.
+     *
+     * @param cut
+     * 		Number of first batches removed.
+     *
+     * @return
+     * 		true if the series has not settled.
+     * */
+    private boolean trending(long[] sums, long[] weights, int cut) {
+        int quarter = (count - cut) / 4;
+        double firstSum = 0, firstWeight = 0, lastSum = 0, lastWeight = 0;
+        RunningStatistics means = new RunningStatistics();
+        for(int batch = cut; batch < count; batch++) {
+            double weight = (weights == null) ? batchSize : weights[batch];
+            if(weight == 0)
+                continue;
+            means.add(sums[batch] / weight);
+            if(batch < cut + quarter) {
+                firstSum += sums[batch];
+                firstWeight += weight;
+            } else if(batch >= count - quarter) {
+                lastSum += sums[batch];
+                lastWeight += weight;
+            }
+        }
+        if(firstWeight == 0 || lastWeight == 0)
+            return false;
+        double difference = Math.abs(firstSum / firstWeight - lastSum / lastWeight);
+        return difference > TREND_ERRORS * means.getStandardDeviation() * Math.sqrt(2.0 / quarter)
+                && difference > TREND_TOLERANCE * Math.abs(means.getMean());
+    }
+
+    /**
+     * Merges every pair of full batches into one batch twice as long.
+     * */
+    private void merge() {
+        for(long[] batch : batches)
+            for(int i = 0; i < count / 2; i++)
+                batch[i] = batch[2 * i] + batch[2 * i + 1];
+        count /= 2;
+        batchSize *= 2;
+    }
+
+    /**
+     * Checks the confidence interval of the mean service time, from the batches after the warm-up, and
+     * converges once it was within the precision twice, the second time after the run at least doubled
+     * in length and with the later mean inside the earlier interval.
+     * */
+    private void checkPrecision() {
+        RunningStatistics means = new RunningStatistics();
+        int n = 0;
+        for(int batch = 0; batch < count; batch++)
+            if(firstTick + batch * batchSize >= warmupEnd && batches[DELIVERED][batch] != 0) {
+                steadyMeans[n] = (double) batches[SERVICE][batch] / batches[DELIVERED][batch];
+                means.add(steadyMeans[n++]);
+            }
+        if(n < MIN_STEADY_BATCHES || lagOneAutocorrelation(n, means.getMean()) > MAX_AUTOCORRELATION
+                || !(means.getRelativeHalfWidth(CONFIDENCE) <= precision)) {
+            candidateTicks = 0;
+            return;
+        }
+        long ticks = countedTick - firstTick + 1L;
+        if(candidateTicks != 0 && ticks < 2 * candidateTicks)
+            return;
+        if(candidateTicks != 0 && Math.abs(means.getMean() - candidateMean) <= candidateHalfWidth) {
+            converged = true;
+            return;
+        }
+        candidateTicks = ticks;
+        candidateMean = means.getMean();
+        candidateHalfWidth = means.getHalfWidth(CONFIDENCE);
+    }
+
+    /**
+     * Returns the lag-1 autocorrelation of the first steady batch means.
+     *
+     * @param n
+     * 		Number of batch means.
+     *
+     * @param mean
+     * 		Mean of the batch means.
+     *
+     * @return
+     * 		Lag-1 autocorrelation, 0 when the means do not vary.
+     * */
+    private double lagOneAutocorrelation(int n, double mean) {
+        double covariance = 0, variance = 0;
+        for(int i = 0; i < n; i++) {
+            double deviation = steadyMeans[i] - mean;
+            variance += deviation * deviation;
+            if(i + 1 < n)
+                covariance += deviation * (steadyMeans[i + 1] - mean);
+        }
+        return (variance == 0) ? 0 : covariance / variance;
+    }
+
+    /**
+     * Returns whether the end of the warm-up was found.
+     *
+     * @return
+     * 		true if the warm-up ended.
+     * */
+    public boolean isWarmedUp() {
+        return warmupEnd != 0;
+    }
+
+    /**
+     * Returns the first simulation unit after the warm-up.
+     *
+     * @return
+     * 		First steady-state simulation unit, 0 while the warm-up has not ended.
+     * */
+    public int getWarmupEnd() {
+        return warmupEnd;
+    }
+
+    /**
+     * Returns whether the steady-state service time is known within the precision.
+     *
+     * @return
+     * 		true if the run may end.
+     * */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Returns the number of steady-state simulation units seen.
+     *
+     * @return
+     * 		Simulation units after the warm-up.
+     * */
+    public long getSteadyTicks() {
+        return warmupEnd == 0 ? 0 : countedTick - warmupEnd + 1;
+    }
+
+    /**
+     * Returns the average service time of the packets delivered after the warm-up.
+     *
+     * @return
+     * 		Steady-state average service time, 0 when none was delivered.
+     * */
+    public double getSteadyServiceTime() {
+        long delivered = last[DELIVERED] - warmup[DELIVERED];
+        return delivered == 0 ? 0 : (double) (last[SERVICE] - warmup[SERVICE]) / delivered;
+    }
+
+    /**
+     * Returns the fraction of the packets arriving after the warm-up that were dropped.
+     *
+     * @return
+     * 		Steady-state drop rate, 0 when none arrived.
+     * */
+    public double getSteadyDropRate() {
+        long arrived = last[ARRIVED] - warmup[ARRIVED];
+        return arrived == 0 ? 0 : (double) (last[DROPPED] - warmup[DROPPED]) / arrived;
+    }
+
+    /**
+     * Returns the average number of packets in the intermediate routers after the warm-up.
+     *
+     * @return
+     * 		Steady-state average total queue depth.
+     * */
+    public double getSteadyQueueDepth() {
+        long ticks = getSteadyTicks();
+        return ticks == 0 ? 0 : (double) (last[DEPTH] - warmup[DEPTH]) / ticks;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(count);
+        out.writeInt(firstTick);
+        out.writeInt(batchSize);
+        out.writeInt(countedTick);
+        out.writeLong(lastDepth);
+        out.writeInt(warmupEnd);
+        out.writeBoolean(converged);
+        out.writeLong(candidateTicks);
+        out.writeDouble(candidateMean);
+        out.writeDouble(candidateHalfWidth);
+        for(int statistic = 0; statistic < STATISTICS; statistic++) {
+            out.writeLong(batchStart[statistic]);
+            out.writeLong(last[statistic]);
+            out.writeLong(warmup[statistic]);
+            for(int batch = 0; batch < count; batch++)
+                out.writeLong(batches[statistic][batch]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        count = in.readInt();
+        if(count < 0 || count >= MAX_BATCHES)
+            throw new IOException("Invalid number of warm-up batches: " + count + ".");
+        firstTick = in.readInt();
+        batchSize = in.readInt();
+        countedTick = in.readInt();
+        lastDepth = in.readLong();
+        warmupEnd = in.readInt();
+        converged = in.readBoolean();
+        candidateTicks = in.readLong();
+        candidateMean = in.readDouble();
+        candidateHalfWidth = in.readDouble();
+        for(int statistic = 0; statistic < STATISTICS; statistic++) {
+            batchStart[statistic] = in.readLong();
+            last[statistic] = in.readLong();
+            warmup[statistic] = in.readLong();
+            for(int batch = 0; batch < count; batch++)
+                batches[statistic][batch] = in.readLong();
+        }
+    }
+}